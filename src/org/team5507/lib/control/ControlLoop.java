@@ -0,0 +1,184 @@
+package org.team5507.lib.control;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A control task run at a fixed period on its own {@link Notifier} thread, for mechanisms that
+ * need a faster loop than the 20 ms main loop. The task receives the measured time since its
+ * previous run in seconds. Exchange setpoints and measurements with the main loop through {@link
+ * SharedState} so the task never takes a lock.
+ *
+ * <p>Each run is timed against the FPGA clock. Jitter is how late a run started compared to its
+ * schedule, and an overrun is a run that finished after the next one was due. The statistics are
+ * written by the loop thread only and may be read from any thread.
+ */
+public class ControlLoop implements AutoCloseable {
+    private final String name;
+    private final double period;
+    private final long periodMicros;
+    private final DoubleConsumer task;
+    private final Notifier notifier;
+    private int priority = 0;
+
+    // Only touched by the loop thread
+    private long expectedStart;
+    private long lastStart;
+    private long jitterSum;
+
+    private volatile boolean first = true;
+    private volatile boolean resetRequested = false;
+    private volatile long cycles = 0;
+    private volatile long overruns = 0;
+    private volatile long maxJitterMicros = 0;
+    private volatile long meanJitterMicros = 0;
+    private volatile long lastExecutionMicros = 0;
+    private volatile long maxExecutionMicros = 0;
+
+    /**
+     * Creates a loop. It does not run until {@link #start()} is called.
+     *
+     * @param name The name of the loop, used for the thread and in statistics
+     * @param period The time between runs in seconds
+     * @param task The task, given the time since its previous run in seconds
+     */
+    public ControlLoop(String name, double period, DoubleConsumer task) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive, got " + period);
+        }
+        this.name = name;
+        this.period = period;
+        this.periodMicros = Math.round(period * 1e6);
+        this.task = task;
+        this.notifier = new Notifier(this::run);
+        notifier.setName(name);
+    }
+
+    /**
+     * Runs the loop thread at a real-time priority so it preempts the main loop. Must be called
+     * before {@link #start()}. Keep real-time tasks short; a real-time task that never yields
+     * starves everything else on its core.
+     *
+     * @param priority The real-time priority, from 1 to 99
+     * @return This loop, for chaining
+     */
+    public ControlLoop realTime(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public void start() {
+        notifier.startPeriodic(period);
+    }
+
+    public void stop() {
+        notifier.stop();
+        first = true;
+    }
+
+    @Override
+    public void close() {
+        notifier.close();
+    }
+
+    private void run() {
+        long start = RobotController.getFPGATime();
+        if (first) {
+            first = false;
+            if (priority > 0) {
+                Threads.setCurrentThreadPriority(true, priority);
+            }
+            expectedStart = start;
+            lastStart = start - periodMicros;
+        }
+        if (resetRequested) {
+            resetRequested = false;
+            jitterSum = 0;
+            cycles = 0;
+            overruns = 0;
+            maxJitterMicros = 0;
+            meanJitterMicros = 0;
+            maxExecutionMicros = 0;
+        }
+
+        task.accept((start - lastStart) * 1e-6);
+        long end = RobotController.getFPGATime();
+
+        long jitter = Math.abs(start - expectedStart);
+        long execution = end - start;
+        long count = cycles + 1;
+        jitterSum += jitter;
+        cycles = count;
+        meanJitterMicros = jitterSum / count;
+        lastExecutionMicros = execution;
+        if (jitter > maxJitterMicros) {
+            maxJitterMicros = jitter;
+        }
+        if (execution > maxExecutionMicros) {
+            maxExecutionMicros = execution;
+        }
+        // The notifier schedules from its own previous deadline, so a late run stays late
+        expectedStart += periodMicros;
+        if (end > expectedStart) {
+            overruns++;
+        }
+        lastStart = start;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    public long getCycleCount() {
+        return cycles;
+    }
+
+    /** @return The number of runs that finished after the next run was due */
+    public long getOverrunCount() {
+        return overruns;
+    }
+
+    /** @return The largest difference between a run's scheduled and actual start */
+    public long getMaxJitterMicros() {
+        return maxJitterMicros;
+    }
+
+    public long getMeanJitterMicros() {
+        return meanJitterMicros;
+    }
+
+    public long getLastExecutionMicros() {
+        return lastExecutionMicros;
+    }
+
+    public long getMaxExecutionMicros() {
+        return maxExecutionMicros;
+    }
+
+    /** Clears the statistics. Takes effect at the start of the next run. */
+    public void resetStatistics() {
+        resetRequested = true;
+    }
+
+    /** @return A one-line summary of the statistics, for logging */
+    public String getStatistics() {
+        return name
+                + ": "
+                + cycles
+                + " runs, jitter mean "
+                + meanJitterMicros
+                + " us max "
+                + maxJitterMicros
+                + " us, execution max "
+                + maxExecutionMicros
+                + " us, "
+                + overruns
+                + " overruns";
+    }
+}
@@ -0,0 +1,86 @@
+package org.team5507.lib.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import org.team5507.lib.util.LoggingManager;
+
+/**
+ * Owns the robot's {@link ControlLoop}s so they can be started, stopped and reported on together.
+ *
+ * <pre>
+ * SharedState flywheelSetpoint = new SharedState(1);
+ * ControlLoopScheduler loops = new ControlLoopScheduler();
+ * loops.add("Flywheel", 0.002, dt -&gt; flywheel.update(flywheelSetpoint.get(0), dt))
+ *         .realTime(20);
+ * loops.startAll();
+ * </pre>
+ */
+public class ControlLoopScheduler implements AutoCloseable {
+    private final List<ControlLoop> loops = new ArrayList<>();
+
+    /**
+     * Creates a loop and adds it to the scheduler.
+     *
+     * @param name The name of the loop
+     * @param period The time between runs in seconds, e.g. 0.002 for 500 Hz
+     * @param task The task, given the time since its previous run in seconds
+     * @return The loop, for further configuration
+     */
+    public ControlLoop add(String name, double period, DoubleConsumer task) {
+        return add(new ControlLoop(name, period, task));
+    }
+
+    /**
+     * Adds an existing loop to the scheduler.
+     *
+     * @param loop The loop to add
+     * @return The loop
+     */
+    public ControlLoop add(ControlLoop loop) {
+        loops.add(loop);
+        return loop;
+    }
+
+    public void startAll() {
+        for (int i = 0; i < loops.size(); i++) {
+            loops.get(i).start();
+        }
+    }
+
+    public void stopAll() {
+        for (int i = 0; i < loops.size(); i++) {
+            loops.get(i).stop();
+        }
+    }
+
+    /**
+     * Writes the statistics of every loop to the data log, e.g. when the robot is disabled.
+     * Allocates, so avoid calling it every cycle.
+     */
+    public void logStatistics() {
+        for (int i = 0; i < loops.size(); i++) {
+            LoggingManager.logMessage(loops.get(i).getStatistics());
+        }
+    }
+
+    /** @return The total number of overruns across all loops */
+    public long getOverrunCount() {
+        long total = 0;
+        for (int i = 0; i < loops.size(); i++) {
+            total += loops.get(i).getOverrunCount();
+        }
+        return total;
+    }
+
+    public List<ControlLoop> getLoops() {
+        return loops;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < loops.size(); i++) {
+            loops.get(i).close();
+        }
+    }
+}
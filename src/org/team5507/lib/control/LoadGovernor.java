@@ -0,0 +1,208 @@
+package org.team5507.lib.control;
+
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.List;
+import org.team5507.lib.filter.MovingAverageFilter;
+import org.team5507.lib.util.LoggingManager;
+
+/**
+ * Sheds non-essential work while the main loop is overrunning and brings it back once there is
+ * headroom again. Work is shed in stages, in the order they were added, so the least important
+ * work goes first: e.g. lower the LED frame rate, then decimate telemetry, then defer log
+ * flushes. One stage is shed or restored at a time, restoring in the reverse order, and every
+ * decision is written to the data log.
+ *
+ * <pre>
+ * LoadGovernor governor = new LoadGovernor();
+ * governor.addStage("LED frame rate", scheduler, ledTask, 0.1);
+ * governor.addStage("Telemetry", scheduler, telemetryTask, 0.2);
+ * governor.addStage("Log flush", scheduler, flushTask, 10);
+ *
+ * // End of robotPeriodic()
+ * governor.update();
+ * </pre>
+ *
+ * <p>The governor looks at the mean loop time over a short window. It sheds when the mean is
+ * above the shed threshold and restores when it is below the lower restore threshold, and it
+ * waits a hold time after each decision so the effect of one stage shows before the next.
+ */
+public class LoadGovernor {
+    private static class Stage {
+        private final String name;
+        private final Runnable shed;
+        private final Runnable restore;
+
+        private Stage(String name, Runnable shed, Runnable restore) {
+            this.name = name;
+            this.shed = shed;
+            this.restore = restore;
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final MovingAverageFilter average;
+    private final int window;
+    private double shedThreshold = 0.022;
+    private double restoreThreshold = 0.0205;
+    private double holdSeconds = 1;
+
+    private int level = 0;
+    private int samples = 0;
+    private long lastUpdateMicros = -1;
+    private long lastDecisionMicros = 0;
+    private double meanLoopTime = 0;
+
+    /** Creates a governor that averages over 25 cycles (0.5 s of the 20 ms loop). */
+    public LoadGovernor() {
+        this(25);
+    }
+
+    /**
+     * Creates a governor.
+     *
+     * @param window The number of cycles the loop time is averaged over
+     */
+    public LoadGovernor(int window) {
+        this.window = window;
+        this.average = new MovingAverageFilter(window);
+    }
+
+    /**
+     * Adds a stage that runs arbitrary code. Stages are shed in the order they are added.
+     *
+     * @param name The name of the stage, used in the log
+     * @param shed Reduces the work
+     * @param restore Undoes the reduction
+     * @return This governor, for chaining
+     */
+    public LoadGovernor addStage(String name, Runnable shed, Runnable restore) {
+        stages.add(new Stage(name, shed, restore));
+        return this;
+    }
+
+    /**
+     * Adds a stage that slows a {@link TaskScheduler} task down and later returns it to the rate
+     * it has when this is called.
+     *
+     * @param name The name of the stage, used in the log
+     * @param scheduler The scheduler that runs the task
+     * @param task The task to slow down
+     * @param shedPeriod The period of the task while shed, in seconds
+     * @return This governor, for chaining
+     */
+    public LoadGovernor addStage(
+            String name, TaskScheduler scheduler, TaskScheduler.Task task, double shedPeriod) {
+        int divisor = task.getDivisor();
+        return addStage(
+                name,
+                () -> scheduler.setPeriod(task, shedPeriod),
+                () -> scheduler.setDivisor(task, divisor));
+    }
+
+    /**
+     * Sets the mean loop times at which work is shed and restored. The restore threshold should
+     * be well below the shed threshold so the governor does not oscillate.
+     *
+     * @param shedSeconds Shed a stage when the mean loop time is above this
+     * @param restoreSeconds Restore a stage when the mean loop time is below this
+     * @return This governor, for chaining
+     */
+    public LoadGovernor thresholds(double shedSeconds, double restoreSeconds) {
+        if (restoreSeconds >= shedSeconds) {
+            throw new IllegalArgumentException("restoreSeconds must be below shedSeconds");
+        }
+        this.shedThreshold = shedSeconds;
+        this.restoreThreshold = restoreSeconds;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait after each decision before making another.
+     *
+     * @param seconds The hold time in seconds
+     * @return This governor, for chaining
+     */
+    public LoadGovernor holdTime(double seconds) {
+        this.holdSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * Measures the time since the previous call as the loop time and updates the governor. Call
+     * once per cycle from the same place in the loop. With the default thresholds this suits a
+     * 20 ms loop, where an overrunning loop stretches the time between calls.
+     */
+    public void update() {
+        long now = RobotController.getFPGATime();
+        if (lastUpdateMicros >= 0) {
+            update((now - lastUpdateMicros) * 1e-6, now);
+        }
+        lastUpdateMicros = now;
+    }
+
+    /**
+     * Updates the governor with a loop time measured elsewhere, e.g. the time spent in
+     * robotPeriodic. Set the thresholds to match what is measured.
+     *
+     * @param loopSeconds The time the latest cycle took
+     */
+    public void update(double loopSeconds) {
+        update(loopSeconds, RobotController.getFPGATime());
+    }
+
+    private void update(double loopSeconds, long now) {
+        meanLoopTime = average.calculate(loopSeconds);
+        if (samples < window) {
+            samples++;
+            return;
+        }
+        if ((now - lastDecisionMicros) * 1e-6 < holdSeconds) {
+            return;
+        }
+        if (meanLoopTime > shedThreshold && level < stages.size()) {
+            Stage stage = stages.get(level++);
+            stage.shed.run();
+            log("Shedding", stage);
+            lastDecisionMicros = now;
+        } else if (meanLoopTime < restoreThreshold && level > 0) {
+            Stage stage = stages.get(--level);
+            stage.restore.run();
+            log("Restoring", stage);
+            lastDecisionMicros = now;
+        }
+    }
+
+    private void log(String action, Stage stage) {
+        LoggingManager.logMessage(
+                "LoadGovernor: "
+                        + action
+                        + " "
+                        + stage.name
+                        + ", mean loop time "
+                        + Math.round(meanLoopTime * 1e4) / 10.0
+                        + " ms, "
+                        + level
+                        + "/"
+                        + stages.size()
+                        + " stages shed");
+    }
+
+    /** Restores every shed stage at once, e.g. when the robot is disabled. */
+    public void restoreAll() {
+        while (level > 0) {
+            Stage stage = stages.get(--level);
+            stage.restore.run();
+            log("Restoring", stage);
+        }
+    }
+
+    /** @return The number of stages currently shed */
+    public int getLevel() {
+        return level;
+    }
+
+    public double getMeanLoopTime() {
+        return meanLoopTime;
+    }
+}
@@ -0,0 +1,163 @@
+package org.team5507.lib.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed set of doubles handed between one writer thread and any number of reader threads
+ * without locks, e.g. setpoints from the main loop to a {@link ControlLoop}, or measurements back.
+ * Readers always see a complete snapshot from a single write, never a mix of two.
+ *
+ * <p>The values are double buffered and each buffer is guarded by a sequence stamp, as in a
+ * seqlock. The writer fills the buffer readers are not using and then publishes it, so a reader
+ * only has to retry if the writer completed a whole write and started another during its read. A
+ * writer preempted halfway through a write never holds up a reader, which matters when the reader
+ * is a real-time thread that could otherwise spin on the core the writer needs.
+ *
+ * <pre>
+ * // Main loop
+ * setpoints.beginWrite();
+ * setpoints.set(0, targetRpm);
+ * setpoints.endWrite();
+ *
+ * // Control loop
+ * setpoints.read(buffer);
+ * </pre>
+ */
+public class SharedState {
+    private final int size;
+    private final AtomicLongArray data;
+    private final AtomicLongArray stamps = new AtomicLongArray(2);
+    private final AtomicLong version = new AtomicLong();
+
+    // Only touched by the writer
+    private long writeVersion;
+    private int writeBuffer;
+    private int writeOffset;
+    private boolean writing = false;
+
+    /**
+     * Creates a state of the given number of values, all zero.
+     *
+     * @param size The number of values
+     */
+    public SharedState(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive, got " + size);
+        }
+        this.size = size;
+        this.data = new AtomicLongArray(2 * size);
+    }
+
+    /**
+     * Starts a write. Values not set before {@link #endWrite()} keep their previous value. Only
+     * one thread may write.
+     */
+    public void beginWrite() {
+        if (writing) {
+            throw new IllegalStateException("beginWrite() called twice without endWrite()");
+        }
+        writing = true;
+        long published = version.get();
+        writeVersion = published + 1;
+        writeBuffer = (int) (writeVersion & 1);
+        writeOffset = writeBuffer * size;
+        stamps.incrementAndGet(writeBuffer);
+
+        int from = (int) (published & 1) * size;
+        for (int i = 0; i < size; i++) {
+            data.set(writeOffset + i, data.get(from + i));
+        }
+    }
+
+    /**
+     * Sets one value of the write in progress.
+     *
+     * @param index The index of the value
+     * @param value The new value
+     */
+    public void set(int index, double value) {
+        if (!writing) {
+            throw new IllegalStateException("set() called outside beginWrite()/endWrite()");
+        }
+        data.set(writeOffset + index, Double.doubleToRawLongBits(value));
+    }
+
+    /** Publishes the write in progress to readers. */
+    public void endWrite() {
+        if (!writing) {
+            throw new IllegalStateException("endWrite() called without beginWrite()");
+        }
+        stamps.incrementAndGet(writeBuffer);
+        version.set(writeVersion);
+        writing = false;
+    }
+
+    /**
+     * Replaces every value in one write.
+     *
+     * @param values The new values, at least {@link #size()} long
+     */
+    public void write(double[] values) {
+        beginWrite();
+        for (int i = 0; i < size; i++) {
+            data.set(writeOffset + i, Double.doubleToRawLongBits(values[i]));
+        }
+        endWrite();
+    }
+
+    /**
+     * Copies the latest published values into an array.
+     *
+     * @param out The array to fill, at least {@link #size()} long
+     * @return The version of the values read, which increases by one per write
+     */
+    public long read(double[] out) {
+        while (true) {
+            long v = version.get();
+            int buffer = (int) (v & 1);
+            long stamp = stamps.get(buffer);
+            if ((stamp & 1) == 0) {
+                int offset = buffer * size;
+                for (int i = 0; i < size; i++) {
+                    out[i] = Double.longBitsToDouble(data.get(offset + i));
+                }
+                if (stamps.get(buffer) == stamp) {
+                    return v;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads one of the latest published values. Reading several values this way may mix writes;
+     * use {@link #read} when values must match.
+     *
+     * @param index The index of the value
+     * @return The value
+     */
+    public double get(int index) {
+        while (true) {
+            long v = version.get();
+            int buffer = (int) (v & 1);
+            long stamp = stamps.get(buffer);
+            if ((stamp & 1) == 0) {
+                double value = Double.longBitsToDouble(data.get(buffer * size + index));
+                if (stamps.get(buffer) == stamp) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** @return The number of writes published so far */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,208 @@
+package org.team5507.lib.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs periodic housekeeping from the main loop at each task's own rate, e.g. LEDs at 50 Hz,
+ * dashboard updates at 10 Hz and log flushes at 1 Hz. Periods are rounded to a whole number of main
+ * loop cycles. Each task is given a phase offset so tasks with the same or related periods run
+ * on different cycles rather than all landing on the same one.
+ *
+ * <pre>
+ * TaskScheduler scheduler = new TaskScheduler();
+ * scheduler.add("LEDs", 0.02, leds::update);
+ * scheduler.add("Dashboard", 0.1, this::updateDashboard);
+ * scheduler.add("Log flush", 1.0, logger::flush);
+ *
+ * // robotPeriodic()
+ * scheduler.run();
+ * </pre>
+ *
+ * <p>Anything whose tuning is counted in calls, such as the windows of {@code StallDetector}, is
+ * stretched by a slower period, so keep such updates every cycle.
+ *
+ * <p>The scheduler is meant for the main loop thread only and allocates nothing while running.
+ */
+public class TaskScheduler {
+    /** A task registered with a {@link TaskScheduler}. */
+    public static class Task {
+        private final String name;
+        private final Runnable action;
+        private int divisor;
+        private int offset;
+        private boolean enabled = true;
+        private long lastExecutionNanos;
+        private long maxExecutionNanos;
+
+        private Task(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** @return How many main loop cycles pass between runs */
+        public int getDivisor() {
+            return divisor;
+        }
+
+        /** @return Which cycle, modulo the divisor, the task runs on */
+        public int getOffset() {
+            return offset;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getLastExecutionNanos() {
+            return lastExecutionNanos;
+        }
+
+        public long getMaxExecutionNanos() {
+            return maxExecutionNanos;
+        }
+    }
+
+    private final double basePeriod;
+    private final List<Task> tasks = new ArrayList<>();
+    private long cycle = 0;
+    private long lastCycleNanos = 0;
+
+    /** Creates a scheduler run from the 20 ms main loop. */
+    public TaskScheduler() {
+        this(0.02);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param basePeriod The period {@link #run()} is called at, in seconds
+     */
+    public TaskScheduler(double basePeriod) {
+        if (basePeriod <= 0) {
+            throw new IllegalArgumentException("basePeriod must be positive, got " + basePeriod);
+        }
+        this.basePeriod = basePeriod;
+    }
+
+    /**
+     * Adds a task.
+     *
+     * @param name The name of the task
+     * @param period The time between runs in seconds, rounded to a whole number of cycles
+     * @param action The work to do
+     * @return The task
+     */
+    public Task add(String name, double period, Runnable action) {
+        Task task = new Task(name, action);
+        tasks.add(task);
+        setPeriod(task, period);
+        return task;
+    }
+
+    /**
+     * Changes how often a task runs and gives it a new phase offset.
+     *
+     * @param task The task to change
+     * @param period The time between runs in seconds, rounded to a whole number of cycles
+     */
+    public void setPeriod(Task task, double period) {
+        setDivisor(task, (int) Math.max(1, Math.round(period / basePeriod)));
+    }
+
+    /**
+     * Changes how often a task runs, in main loop cycles, and gives it a new phase offset.
+     *
+     * @param task The task to change
+     * @param divisor How many cycles pass between runs
+     */
+    public void setDivisor(Task task, int divisor) {
+        if (divisor < 1) {
+            throw new IllegalArgumentException("divisor must be positive, got " + divisor);
+        }
+        task.divisor = divisor;
+        task.offset = chooseOffset(task, divisor);
+    }
+
+    /**
+     * Picks the offset that collides least with the other tasks. Two tasks with divisors a and b
+     * land on the same cycle once every lcm(a, b) cycles if their offsets agree modulo gcd(a, b),
+     * and never otherwise, so each candidate is scored by how often it would share a cycle.
+     */
+    private int chooseOffset(Task task, int divisor) {
+        int best = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int candidate = 0; candidate < divisor; candidate++) {
+            double cost = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                Task other = tasks.get(i);
+                if (other == task || other.divisor <= 1) {
+                    continue;
+                }
+                int gcd = gcd(divisor, other.divisor);
+                if (candidate % gcd == other.offset % gcd) {
+                    cost += (double) gcd / ((long) divisor * other.divisor);
+                }
+            }
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /** Runs the tasks due this cycle. Call once per main loop cycle. */
+    public void run() {
+        long cycleStart = System.nanoTime();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (!task.enabled || (cycle - task.offset) % task.divisor != 0) {
+                continue;
+            }
+            long start = System.nanoTime();
+            task.action.run();
+            long elapsed = System.nanoTime() - start;
+            task.lastExecutionNanos = elapsed;
+            if (elapsed > task.maxExecutionNanos) {
+                task.maxExecutionNanos = elapsed;
+            }
+        }
+        cycle++;
+        lastCycleNanos = System.nanoTime() - cycleStart;
+    }
+
+    /** @return The time the last call to {@link #run()} took */
+    public long getLastCycleNanos() {
+        return lastCycleNanos;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public double getBasePeriod() {
+        return basePeriod;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
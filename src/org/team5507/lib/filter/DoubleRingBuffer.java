@@ -0,0 +1,73 @@
+package org.team5507.lib.filter;
+
+/**
+ * A fixed-capacity circular buffer of doubles. Once full, each add overwrites the oldest value.
+ * The backing array is allocated once in the constructor.
+ */
+public class DoubleRingBuffer {
+    private final double[] values;
+    private int head = 0; // index the next value is written to
+    private int size = 0;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        values = new double[capacity];
+    }
+
+    /**
+     * Adds a value, overwriting the oldest one if the buffer is full.
+     *
+     * @param value The value to add
+     */
+    public void add(double value) {
+        values[head] = value;
+        head = head + 1 == values.length ? 0 : head + 1;
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns a value by age.
+     *
+     * @param age 0 for the newest value, up to {@code size() - 1} for the oldest
+     * @return The value
+     */
+    public double get(int age) {
+        int index = head - 1 - age;
+        return values[index < 0 ? index + values.length : index];
+    }
+
+    public double getNewest() {
+        return get(0);
+    }
+
+    /**
+     * Returns the oldest value, which is the one the next {@link #add} overwrites once the buffer
+     * is full.
+     *
+     * @return The oldest value
+     */
+    public double getOldest() {
+        return get(size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.team5507.lib.filter;
+
+/**
+ * Exponential moving average: {@code out = out + alpha * (in - out)}. The first sample after a
+ * reset is passed through unchanged so the output does not ramp up from zero.
+ */
+public class ExponentialFilter {
+    private final double alpha;
+    private double value = 0;
+    private boolean primed = false;
+
+    /**
+     * Creates a filter from its smoothing factor.
+     *
+     * @param alpha The weight of each new sample, between 0 (frozen) and 1 (no filtering)
+     */
+    public ExponentialFilter(double alpha) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in [0, 1], got " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Creates a filter from a time constant, like a first-order low pass.
+     *
+     * @param timeConstant The time constant in seconds
+     * @param period The time between samples in seconds
+     * @return The filter
+     */
+    public static ExponentialFilter fromTimeConstant(double timeConstant, double period) {
+        return new ExponentialFilter(period / (timeConstant + period));
+    }
+
+    public double calculate(double input) {
+        if (primed) {
+            value += alpha * (input - value);
+        } else {
+            value = input;
+            primed = true;
+        }
+        return value;
+    }
+
+    public double get() {
+        return value;
+    }
+
+    public void reset() {
+        value = 0;
+        primed = false;
+    }
+}
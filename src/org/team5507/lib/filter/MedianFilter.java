@@ -0,0 +1,165 @@
+package org.team5507.lib.filter;
+
+/**
+ * Running median of the last N samples. Useful for rejecting single-sample spikes, such as
+ * current spikes, without the lag a long average would add.
+ *
+ * <p>The window is split between a max-heap holding the lower half and a min-heap holding the
+ * upper half. Both heaps store indices into the sample ring, and every ring slot remembers where
+ * it sits, so the sample leaving the window is replaced in place. Each update is O(log n) and
+ * allocation-free.
+ */
+public class MedianFilter {
+    private final double[] values;
+    private final int[] lower; // max-heap of slots
+    private final int[] upper; // min-heap of slots
+    private final int[] position; // index of each slot within its heap
+    private final boolean[] inLower;
+    private int lowerSize = 0;
+    private int upperSize = 0;
+    private int head = 0;
+    private int count = 0;
+
+    /**
+     * Creates a median filter.
+     *
+     * @param size The number of samples in the window
+     */
+    public MedianFilter(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, got " + size);
+        }
+        values = new double[size];
+        lower = new int[size];
+        upper = new int[size];
+        position = new int[size];
+        inLower = new boolean[size];
+    }
+
+    /**
+     * Adds a sample and returns the median of the window.
+     *
+     * @param value The new sample
+     * @return The median; the mean of the two middle samples when the window holds an even
+     *     number
+     */
+    public double calculate(double value) {
+        int slot = head;
+        head = head + 1 == values.length ? 0 : head + 1;
+        values[slot] = value;
+
+        if (count < values.length) {
+            count++;
+            if (lowerSize == 0 || value <= values[lower[0]]) {
+                push(lower, lowerSize++, slot, true);
+            } else {
+                push(upper, upperSize++, slot, false);
+            }
+            if (lowerSize > upperSize + 1) {
+                push(upper, upperSize++, pop(lower, --lowerSize, true), false);
+            } else if (upperSize > lowerSize) {
+                push(lower, lowerSize++, pop(upper, --upperSize, false), true);
+            }
+        } else {
+            // The slot held the oldest sample; move it to wherever its new value belongs
+            if (inLower[slot]) {
+                fix(lower, lowerSize, position[slot], true);
+            } else {
+                fix(upper, upperSize, position[slot], false);
+            }
+            if (upperSize > 0 && values[lower[0]] > values[upper[0]]) {
+                int a = lower[0];
+                int b = upper[0];
+                place(lower, 0, b, true);
+                place(upper, 0, a, false);
+                siftDown(lower, lowerSize, 0, true);
+                siftDown(upper, upperSize, 0, false);
+            }
+        }
+        return get();
+    }
+
+    /**
+     * Returns the current median without adding a sample.
+     *
+     * @return The median, or 0 if no samples have been added
+     */
+    public double get() {
+        if (lowerSize == 0) {
+            return 0;
+        }
+        if (lowerSize > upperSize) {
+            return values[lower[0]];
+        }
+        return (values[lower[0]] + values[upper[0]]) / 2;
+    }
+
+    public void reset() {
+        lowerSize = 0;
+        upperSize = 0;
+        head = 0;
+        count = 0;
+    }
+
+    private void push(int[] heap, int index, int slot, boolean max) {
+        place(heap, index, slot, max);
+        siftUp(heap, index, max);
+    }
+
+    private int pop(int[] heap, int last, boolean max) {
+        int top = heap[0];
+        if (last > 0) {
+            place(heap, 0, heap[last], max);
+            siftDown(heap, last, 0, max);
+        }
+        return top;
+    }
+
+    private void fix(int[] heap, int size, int index, boolean max) {
+        siftDown(heap, size, siftUp(heap, index, max), max);
+    }
+
+    private int siftUp(int[] heap, int index, boolean max) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!above(slot, heap[parent], max)) {
+                break;
+            }
+            place(heap, index, heap[parent], max);
+            index = parent;
+        }
+        place(heap, index, slot, max);
+        return index;
+    }
+
+    private void siftDown(int[] heap, int size, int index, boolean max) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && above(heap[child + 1], heap[child], max)) {
+                child++;
+            }
+            if (!above(heap[child], slot, max)) {
+                break;
+            }
+            place(heap, index, heap[child], max);
+            index = child;
+        }
+        place(heap, index, slot, max);
+    }
+
+    /** Whether slot a belongs above slot b in the heap. */
+    private boolean above(int a, int b, boolean max) {
+        return max ? values[a] > values[b] : values[a] < values[b];
+    }
+
+    private void place(int[] heap, int index, int slot, boolean max) {
+        heap[index] = slot;
+        position[slot] = index;
+        inLower[slot] = max;
+    }
+}
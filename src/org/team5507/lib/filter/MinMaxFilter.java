@@ -0,0 +1,111 @@
+package org.team5507.lib.filter;
+
+/**
+ * Tracks the minimum and maximum of the last N samples, e.g. to check that a current stayed above
+ * a threshold for a whole window. Uses a monotonic queue per extreme, so each update is amortized
+ * O(1) and allocation-free.
+ */
+public class MinMaxFilter {
+    private final int size;
+    private final double[] values;
+    private final MonotonicQueue maxQueue;
+    private final MonotonicQueue minQueue;
+    private long sequence = -1;
+
+    /**
+     * Creates a window min/max filter.
+     *
+     * @param size The number of samples in the window
+     */
+    public MinMaxFilter(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive, got " + size);
+        }
+        this.size = size;
+        values = new double[size];
+        maxQueue = new MonotonicQueue(size, true);
+        minQueue = new MonotonicQueue(size, false);
+    }
+
+    /**
+     * Adds a sample. Read the result with {@link #getMin()}, {@link #getMax()} or {@link
+     * #getRange()}.
+     *
+     * @param value The new sample
+     */
+    public void add(double value) {
+        sequence++;
+        values[(int) (sequence % size)] = value;
+        maxQueue.add(sequence);
+        minQueue.add(sequence);
+    }
+
+    /** @return The largest sample in the window, or NaN if empty */
+    public double getMax() {
+        return maxQueue.front();
+    }
+
+    /** @return The smallest sample in the window, or NaN if empty */
+    public double getMin() {
+        return minQueue.front();
+    }
+
+    /** @return The spread between the largest and smallest sample in the window */
+    public double getRange() {
+        return getMax() - getMin();
+    }
+
+    public void reset() {
+        sequence = -1;
+        maxQueue.clear();
+        minQueue.clear();
+    }
+
+    /** Sequence numbers whose values are strictly decreasing (max) or increasing (min). */
+    private final class MonotonicQueue {
+        private final long[] entries;
+        private final boolean max;
+        private int first = 0;
+        private int length = 0;
+
+        MonotonicQueue(int capacity, boolean max) {
+            entries = new long[capacity];
+            this.max = max;
+        }
+
+        void add(long seq) {
+            // Drop the entry that just left the window
+            if (length > 0 && entries[first] <= seq - size) {
+                first = first + 1 == entries.length ? 0 : first + 1;
+                length--;
+            }
+            double value = valueOf(seq);
+            while (length > 0) {
+                double back = valueOf(entries[index(length - 1)]);
+                if (max ? back > value : back < value) {
+                    break;
+                }
+                length--;
+            }
+            entries[index(length++)] = seq;
+        }
+
+        double front() {
+            return length == 0 ? Double.NaN : valueOf(entries[first]);
+        }
+
+        void clear() {
+            first = 0;
+            length = 0;
+        }
+
+        private int index(int offset) {
+            int i = first + offset;
+            return i >= entries.length ? i - entries.length : i;
+        }
+
+        private double valueOf(long seq) {
+            return values[(int) (seq % size)];
+        }
+    }
+}
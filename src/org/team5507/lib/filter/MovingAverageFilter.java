@@ -0,0 +1,51 @@
+package org.team5507.lib.filter;
+
+/**
+ * Averages the last N samples. Each update is O(1): the sum is kept running and only the sample
+ * leaving the window is subtracted.
+ */
+public class MovingAverageFilter {
+    private final DoubleRingBuffer window;
+    private double sum = 0;
+    private int sinceResum = 0;
+
+    /**
+     * Creates a moving average.
+     *
+     * @param taps The number of samples averaged
+     */
+    public MovingAverageFilter(int taps) {
+        window = new DoubleRingBuffer(taps);
+    }
+
+    /**
+     * Adds a sample and returns the average of the window, or of every sample so far while the
+     * window is filling.
+     *
+     * @param value The new sample
+     * @return The average
+     */
+    public double calculate(double value) {
+        if (window.isFull()) {
+            sum -= window.getOldest();
+        }
+        window.add(value);
+        sum += value;
+
+        // Re-sum once per window so rounding errors cannot accumulate forever
+        if (++sinceResum >= window.capacity()) {
+            sinceResum = 0;
+            sum = 0;
+            for (int i = 0; i < window.size(); i++) {
+                sum += window.get(i);
+            }
+        }
+        return sum / window.size();
+    }
+
+    public void reset() {
+        window.clear();
+        sum = 0;
+        sinceResum = 0;
+    }
+}
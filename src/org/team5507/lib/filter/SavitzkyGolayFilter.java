@@ -0,0 +1,135 @@
+package org.team5507.lib.filter;
+
+/**
+ * Savitzky-Golay filter evaluated at the newest sample. It fits a low-order polynomial to the last
+ * N samples by least squares and reports the fit's value and first derivative at the newest
+ * sample, which estimates velocity from position with much less lag than a moving average of
+ * differences.
+ *
+ * <p>The fit reduces to two fixed convolutions whose weights are solved once in the constructor.
+ * Each update is one pass over the window, constant for a given window size, with no allocation.
+ */
+public class SavitzkyGolayFilter {
+    private final DoubleRingBuffer window;
+    // Weights indexed by sample age, 0 being the newest
+    private final double[] valueWeights;
+    private final double[] slopeWeights;
+    private double value = 0;
+    private double derivative = 0;
+
+    /**
+     * Creates a Savitzky-Golay filter.
+     *
+     * @param size The number of samples fitted
+     * @param order The polynomial order, at least 1 and less than size; 2 is a good default
+     * @param period The time between samples in seconds
+     */
+    public SavitzkyGolayFilter(int size, int order, double period) {
+        if (order < 1 || order >= size) {
+            throw new IllegalArgumentException(
+                    "order must be between 1 and size - 1, got " + order + " for size " + size);
+        }
+        window = new DoubleRingBuffer(size);
+        valueWeights = new double[size];
+        slopeWeights = new double[size];
+
+        // Normal equations of the fit, with the newest sample at x = 0 and older ones at x < 0
+        int terms = order + 1;
+        double[][] normal = new double[terms][terms];
+        for (int age = 0; age < size; age++) {
+            for (int r = 0; r < terms; r++) {
+                for (int c = 0; c < terms; c++) {
+                    normal[r][c] += Math.pow(-age, r + c);
+                }
+            }
+        }
+        double[][] inverse = invert(normal);
+        for (int age = 0; age < size; age++) {
+            for (int m = 0; m < terms; m++) {
+                double basis = Math.pow(-age, m);
+                valueWeights[age] += inverse[0][m] * basis;
+                slopeWeights[age] += inverse[1][m] * basis / period;
+            }
+        }
+    }
+
+    /**
+     * Adds a sample and returns the derivative of the fit at that sample.
+     *
+     * @param input The new sample
+     * @return The derivative in units per second, or 0 until the window is full
+     */
+    public double calculate(double input) {
+        window.add(input);
+        if (!window.isFull()) {
+            value = input;
+            derivative = 0;
+            return 0;
+        }
+        double v = 0;
+        double d = 0;
+        for (int age = 0; age < valueWeights.length; age++) {
+            double y = window.get(age);
+            v += valueWeights[age] * y;
+            d += slopeWeights[age] * y;
+        }
+        value = v;
+        derivative = d;
+        return d;
+    }
+
+    /** @return The smoothed value of the fit at the newest sample */
+    public double getValue() {
+        return value;
+    }
+
+    /** @return The derivative of the fit at the newest sample, in units per second */
+    public double getDerivative() {
+        return derivative;
+    }
+
+    public void reset() {
+        window.clear();
+        value = 0;
+        derivative = 0;
+    }
+
+    /** Gauss-Jordan inversion with partial pivoting; only used for the small normal matrix. */
+    private static double[][] invert(double[][] matrix) {
+        int n = matrix.length;
+        double[][] a = new double[n][2 * n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(matrix[r], 0, a[r], 0, n);
+            a[r][n + r] = 1;
+        }
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < n; r++) {
+                if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) {
+                    pivot = r;
+                }
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+
+            double scale = a[col][col];
+            for (int c = 0; c < 2 * n; c++) {
+                a[col][c] /= scale;
+            }
+            for (int r = 0; r < n; r++) {
+                if (r != col) {
+                    double factor = a[r][col];
+                    for (int c = 0; c < 2 * n; c++) {
+                        a[r][c] -= factor * a[col][c];
+                    }
+                }
+            }
+        }
+        double[][] inverse = new double[n][n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(a[r], n, inverse[r], 0, n);
+        }
+        return inverse;
+    }
+}
@@ -0,0 +1,90 @@
+package org.team5507.lib.filter;
+
+/**
+ * Least-squares slope of the last N samples, taken at a fixed period. Fitting a line to a window
+ * of positions gives a velocity estimate that is far less noisy than differencing two samples.
+ *
+ * <p>The regression sums are updated incrementally when a sample enters or leaves the window, so
+ * each update is O(1).
+ */
+public class SlopeFilter {
+    private final DoubleRingBuffer window;
+    private final double period;
+    private double sumY = 0; // sum of y_k
+    private double sumKY = 0; // sum of k * y_k, where k = 0 for the oldest sample
+    private int sinceResum = 0;
+
+    /**
+     * Creates a slope filter.
+     *
+     * @param size The number of samples fitted, at least 2
+     * @param period The time between samples in seconds
+     */
+    public SlopeFilter(int size, double period) {
+        if (size < 2) {
+            throw new IllegalArgumentException("A slope needs at least 2 samples, got " + size);
+        }
+        window = new DoubleRingBuffer(size);
+        this.period = period;
+    }
+
+    /**
+     * Adds a sample and returns the slope of the window in units per second.
+     *
+     * @param value The new sample
+     * @return The slope, or 0 until two samples have been added
+     */
+    public double calculate(double value) {
+        int k = window.size();
+        if (window.isFull()) {
+            // Every sample's k drops by one and the oldest (k = 0) leaves
+            double oldest = window.getOldest();
+            sumKY -= sumY - oldest;
+            sumY -= oldest;
+            k--;
+        }
+        sumKY += k * value;
+        sumY += value;
+        window.add(value);
+
+        if (++sinceResum >= window.capacity()) {
+            resum();
+        }
+        return get();
+    }
+
+    /**
+     * Returns the current slope without adding a sample.
+     *
+     * @return The slope in units per second
+     */
+    public double get() {
+        int n = window.size();
+        if (n < 2) {
+            return 0;
+        }
+        // Closed forms of sum(k) and sum(k^2) for k = 0 .. n - 1
+        double sumK = n * (n - 1) / 2.0;
+        double sumKK = (n - 1) * n * (2 * n - 1) / 6.0;
+        return (n * sumKY - sumK * sumY) / (n * sumKK - sumK * sumK) / period;
+    }
+
+    public void reset() {
+        window.clear();
+        sumY = 0;
+        sumKY = 0;
+        sinceResum = 0;
+    }
+
+    private void resum() {
+        sinceResum = 0;
+        sumY = 0;
+        sumKY = 0;
+        int n = window.size();
+        for (int age = 0; age < n; age++) {
+            double y = window.get(age);
+            sumY += y;
+            sumKY += (n - 1 - age) * y;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.team5507.lib.kinematics;
+
+/**
+ * Shared conventions and helpers for the primitive kinematics classes. Chassis speeds are passed
+ * as a {@code double[3]} of {vx, vy, omega} in meters per second and radians per second, robot
+ * relative, with +x forward, +y left and counter-clockwise positive. Wheel speeds are passed as a
+ * {@code double[]} in the order documented by each drivetrain.
+ */
+public final class DriveKinematics {
+    /** Index of the forward speed in a chassis speeds array. */
+    public static final int VX = 0;
+
+    /** Index of the leftward speed in a chassis speeds array. */
+    public static final int VY = 1;
+
+    /** Index of the counter-clockwise angular speed in a chassis speeds array. */
+    public static final int OMEGA = 2;
+
+    private DriveKinematics() {}
+
+    /**
+     * Scales wheel speeds down uniformly so none exceeds the maximum, keeping their ratios and
+     * therefore the direction of motion.
+     *
+     * @param speeds The wheel speeds, modified in place
+     * @param count The number of wheels
+     * @param maxSpeed The fastest any wheel can go
+     */
+    public static void desaturate(double[] speeds, int count, double maxSpeed) {
+        double highest = 0;
+        for (int i = 0; i < count; i++) {
+            highest = Math.max(highest, Math.abs(speeds[i]));
+        }
+        if (highest > maxSpeed) {
+            double scale = maxSpeed / highest;
+            for (int i = 0; i < count; i++) {
+                speeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Converts field-relative chassis speeds to robot-relative ones in place.
+     *
+     * @param speeds The chassis speeds, modified in place
+     * @param robotHeading The robot's heading on the field in radians
+     */
+    public static void fromFieldRelative(double[] speeds, double robotHeading) {
+        double cos = Math.cos(robotHeading);
+        double sin = Math.sin(robotHeading);
+        double vx = speeds[VX];
+        double vy = speeds[VY];
+        speeds[VX] = vx * cos + vy * sin;
+        speeds[VY] = -vx * sin + vy * cos;
+    }
+
+    /**
+     * Wraps an angle to [-pi, pi].
+     *
+     * @param radians The angle
+     * @return The equivalent angle in [-pi, pi]
+     */
+    public static double wrap(double radians) {
+        return Math.IEEEremainder(radians, 2 * Math.PI);
+    }
+}
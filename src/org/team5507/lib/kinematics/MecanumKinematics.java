@@ -0,0 +1,59 @@
+package org.team5507.lib.kinematics;
+
+/**
+ * Mecanum drive kinematics on primitives, for a rectangular wheel layout centered on the robot.
+ * Wheel speed arrays are {front left, front right, rear left, rear right}.
+ *
+ * @see DriveKinematics
+ */
+public class MecanumKinematics {
+    public static final int FRONT_LEFT = 0;
+    public static final int FRONT_RIGHT = 1;
+    public static final int REAR_LEFT = 2;
+    public static final int REAR_RIGHT = 3;
+
+    // Sum of the half wheelbase and half track width, the lever arm for rotation
+    private final double k;
+
+    /**
+     * Creates mecanum kinematics.
+     *
+     * @param wheelbase The distance between the front and rear wheels, in meters
+     * @param trackWidth The distance between the left and right wheels, in meters
+     */
+    public MecanumKinematics(double wheelbase, double trackWidth) {
+        this.k = (wheelbase + trackWidth) / 2;
+    }
+
+    /**
+     * Converts chassis speeds to wheel speeds.
+     *
+     * @param chassis The {vx, vy, omega} chassis speeds
+     * @param wheels The array the four wheel speeds are written to
+     */
+    public void toWheelSpeeds(double[] chassis, double[] wheels) {
+        double vx = chassis[DriveKinematics.VX];
+        double vy = chassis[DriveKinematics.VY];
+        double turn = chassis[DriveKinematics.OMEGA] * k;
+        wheels[FRONT_LEFT] = vx - vy - turn;
+        wheels[FRONT_RIGHT] = vx + vy + turn;
+        wheels[REAR_LEFT] = vx + vy - turn;
+        wheels[REAR_RIGHT] = vx - vy + turn;
+    }
+
+    /**
+     * Converts wheel speeds, or wheel distance deltas, to chassis speeds or a chassis twist.
+     *
+     * @param wheels The four wheel speeds
+     * @param chassis The {vx, vy, omega} array the result is written to
+     */
+    public void toChassisSpeeds(double[] wheels, double[] chassis) {
+        double fl = wheels[FRONT_LEFT];
+        double fr = wheels[FRONT_RIGHT];
+        double rl = wheels[REAR_LEFT];
+        double rr = wheels[REAR_RIGHT];
+        chassis[DriveKinematics.VX] = (fl + fr + rl + rr) / 4;
+        chassis[DriveKinematics.VY] = (-fl + fr + rl - rr) / 4;
+        chassis[DriveKinematics.OMEGA] = (-fl + fr - rl + rr) / (4 * k);
+    }
+}
@@ -0,0 +1,100 @@
+package org.team5507.lib.kinematics;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Tracks the robot's field pose as three primitives by integrating robot-relative motion along an
+ * arc. Works for any drivetrain: convert this cycle's wheel distance deltas to a chassis twist
+ * with the drivetrain's {@code toChassisSpeeds}, then pass the twist and the gyro heading here.
+ *
+ * <pre>
+ * kinematics.toChassisSpeeds(distanceDeltas, angles, twist);
+ * odometry.update(twist[DriveKinematics.VX], twist[DriveKinematics.VY], gyroRadians);
+ * </pre>
+ */
+public class Odometry {
+    private double x;
+    private double y;
+    private double heading;
+    private double gyroOffset;
+
+    /**
+     * Creates odometry at the given pose.
+     *
+     * @param x The starting x in meters
+     * @param y The starting y in meters
+     * @param heading The starting heading in radians
+     * @param gyroHeading The gyro reading at the starting pose, in radians
+     */
+    public Odometry(double x, double y, double heading, double gyroHeading) {
+        reset(x, y, heading, gyroHeading);
+    }
+
+    /**
+     * Resets the pose, e.g. at the start of an auto.
+     *
+     * @param x The x in meters
+     * @param y The y in meters
+     * @param heading The heading in radians
+     * @param gyroHeading The gyro reading at this pose, in radians
+     */
+    public void reset(double x, double y, double heading, double gyroHeading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.gyroOffset = heading - gyroHeading;
+    }
+
+    /**
+     * Integrates one cycle of motion.
+     *
+     * @param dx The forward distance travelled this cycle, robot relative, in meters
+     * @param dy The leftward distance travelled this cycle, robot relative, in meters
+     * @param gyroHeading The current gyro reading in radians, counter-clockwise positive
+     */
+    public void update(double dx, double dy, double gyroHeading) {
+        double newHeading = gyroHeading + gyroOffset;
+        double dtheta = newHeading - heading;
+
+        // Pose exponential: move along the arc rather than the chord
+        double s;
+        double c;
+        if (Math.abs(dtheta) < 1e-9) {
+            s = 1 - dtheta * dtheta / 6;
+            c = dtheta / 2;
+        } else {
+            s = Math.sin(dtheta) / dtheta;
+            c = (1 - Math.cos(dtheta)) / dtheta;
+        }
+        double localX = dx * s - dy * c;
+        double localY = dx * c + dy * s;
+
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        x += localX * cos - localY * sin;
+        y += localX * sin + localY * cos;
+        heading = newHeading;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Returns the pose as a {@link Pose2d}. This allocates.
+     *
+     * @return The current pose
+     */
+    public Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+}
@@ -0,0 +1,161 @@
+package org.team5507.lib.kinematics;
+
+/**
+ * Swerve drive kinematics on primitives for any number of modules. Module states are passed as
+ * two parallel arrays, speeds in meters per second and angles in radians, in the order the module
+ * positions were given to the constructor.
+ *
+ * @see DriveKinematics
+ */
+public class SwerveKinematics {
+    private final int count;
+    private final double[] moduleX;
+    private final double[] moduleY;
+    // Least-squares inverse of the inverse kinematics, rows vx, vy, omega over [vx0, vy0, vx1, ...]
+    private final double[] forward;
+
+    /**
+     * Creates swerve kinematics.
+     *
+     * @param moduleX The x position of each module relative to the robot center, in meters
+     * @param moduleY The y position of each module relative to the robot center, in meters
+     */
+    public SwerveKinematics(double[] moduleX, double[] moduleY) {
+        if (moduleX.length != moduleY.length || moduleX.length < 2) {
+            throw new IllegalArgumentException("Need matching positions for at least 2 modules");
+        }
+        this.count = moduleX.length;
+        this.moduleX = moduleX.clone();
+        this.moduleY = moduleY.clone();
+
+        // Each module contributes rows [1, 0, -y] and [0, 1, x]; form and invert A^T A
+        double sumX = 0;
+        double sumY = 0;
+        double sumSq = 0;
+        for (int i = 0; i < count; i++) {
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+            sumSq += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+        }
+        double[][] inverse =
+                invert3(
+                        new double[][] {
+                            {count, 0, -sumY}, {0, count, sumX}, {-sumY, sumX, sumSq}
+                        });
+        forward = new double[3 * 2 * count];
+        for (int r = 0; r < 3; r++) {
+            for (int i = 0; i < count; i++) {
+                forward[r * 2 * count + 2 * i] = inverse[r][0] - inverse[r][2] * moduleY[i];
+                forward[r * 2 * count + 2 * i + 1] = inverse[r][1] + inverse[r][2] * moduleX[i];
+            }
+        }
+    }
+
+    /**
+     * Converts chassis speeds to module states. A module asked to stop keeps the angle already in
+     * the angles array instead of snapping to zero.
+     *
+     * @param chassis The {vx, vy, omega} chassis speeds
+     * @param speeds The array the module speeds are written to
+     * @param angles The array the module angles are written to, in [-pi, pi]
+     */
+    public void toModuleStates(double[] chassis, double[] speeds, double[] angles) {
+        double vx = chassis[DriveKinematics.VX];
+        double vy = chassis[DriveKinematics.VY];
+        double omega = chassis[DriveKinematics.OMEGA];
+        for (int i = 0; i < count; i++) {
+            double mx = vx - omega * moduleY[i];
+            double my = vy + omega * moduleX[i];
+            double speed = Math.sqrt(mx * mx + my * my);
+            speeds[i] = speed;
+            if (speed > 1e-9) {
+                angles[i] = Math.atan2(my, mx);
+            }
+        }
+    }
+
+    /**
+     * Converts module states to chassis speeds with a least-squares fit. Passing module distance
+     * deltas instead of speeds yields the chassis twist for {@link Odometry}.
+     *
+     * @param speeds The module speeds
+     * @param angles The module angles in radians
+     * @param chassis The {vx, vy, omega} array the result is written to
+     */
+    public void toChassisSpeeds(double[] speeds, double[] angles, double[] chassis) {
+        double vx = 0;
+        double vy = 0;
+        double omega = 0;
+        int stride = 2 * count;
+        for (int i = 0; i < count; i++) {
+            double mx = speeds[i] * Math.cos(angles[i]);
+            double my = speeds[i] * Math.sin(angles[i]);
+            int c = 2 * i;
+            vx += forward[c] * mx + forward[c + 1] * my;
+            vy += forward[stride + c] * mx + forward[stride + c + 1] * my;
+            omega += forward[2 * stride + c] * mx + forward[2 * stride + c + 1] * my;
+        }
+        chassis[DriveKinematics.VX] = vx;
+        chassis[DriveKinematics.VY] = vy;
+        chassis[DriveKinematics.OMEGA] = omega;
+    }
+
+    /**
+     * Minimizes module rotation. Where a module would have to turn more than 90 degrees, its
+     * speed is reversed and its target turned by 180 degrees instead. Each target angle is
+     * rewritten as the equivalent angle closest to the module's current angle, so it can be sent
+     * straight to a continuous position controller.
+     *
+     * @param speeds The desired module speeds, modified in place
+     * @param angles The desired module angles in radians, modified in place
+     * @param currentAngles The module angles as measured, in radians, not necessarily wrapped
+     */
+    public void optimize(double[] speeds, double[] angles, double[] currentAngles) {
+        for (int i = 0; i < count; i++) {
+            double delta = DriveKinematics.wrap(angles[i] - currentAngles[i]);
+            if (Math.abs(delta) > Math.PI / 2) {
+                speeds[i] = -speeds[i];
+                delta = DriveKinematics.wrap(delta + Math.PI);
+            }
+            angles[i] = currentAngles[i] + delta;
+        }
+    }
+
+    /**
+     * Scales module speeds down uniformly so none exceeds the maximum.
+     *
+     * @param speeds The module speeds, modified in place
+     * @param maxSpeed The fastest any module can drive
+     */
+    public void desaturate(double[] speeds, double maxSpeed) {
+        DriveKinematics.desaturate(speeds, count, maxSpeed);
+    }
+
+    public int getModuleCount() {
+        return count;
+    }
+
+    private static double[][] invert3(double[][] m) {
+        double[][] inverse = new double[3][3];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                // Transposed cofactor; the index rotation supplies the sign
+                int r1 = (c + 1) % 3;
+                int r2 = (c + 2) % 3;
+                int c1 = (r + 1) % 3;
+                int c2 = (r + 2) % 3;
+                inverse[r][c] = m[r1][c1] * m[r2][c2] - m[r1][c2] * m[r2][c1];
+            }
+        }
+        double det = m[0][0] * inverse[0][0] + m[0][1] * inverse[1][0] + m[0][2] * inverse[2][0];
+        if (Math.abs(det) < 1e-12) {
+            throw new IllegalArgumentException("Module positions cannot determine rotation");
+        }
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                inverse[r][c] /= det;
+            }
+        }
+        return inverse;
+    }
+}
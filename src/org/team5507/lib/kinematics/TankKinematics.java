@@ -0,0 +1,59 @@
+package org.team5507.lib.kinematics;
+
+/**
+ * Differential drive kinematics on primitives. Wheel speed arrays are {left, right}.
+ *
+ * @see DriveKinematics
+ */
+public class TankKinematics {
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+
+    private final double halfTrackWidth;
+
+    /**
+     * Creates tank kinematics.
+     *
+     * @param trackWidth The distance between the left and right wheels, in meters
+     */
+    public TankKinematics(double trackWidth) {
+        this.halfTrackWidth = trackWidth / 2;
+    }
+
+    /**
+     * Converts chassis speeds to wheel speeds. The sideways component is ignored.
+     *
+     * @param chassis The {vx, vy, omega} chassis speeds
+     * @param wheels The {left, right} array the wheel speeds are written to
+     */
+    public void toWheelSpeeds(double[] chassis, double[] wheels) {
+        double vx = chassis[DriveKinematics.VX];
+        double turn = chassis[DriveKinematics.OMEGA] * halfTrackWidth;
+        wheels[LEFT] = vx - turn;
+        wheels[RIGHT] = vx + turn;
+    }
+
+    /**
+     * Converts wheel speeds, or wheel distance deltas, to chassis speeds or a chassis twist.
+     *
+     * @param wheels The {left, right} wheel speeds
+     * @param chassis The {vx, vy, omega} array the result is written to; vy is always 0
+     */
+    public void toChassisSpeeds(double[] wheels, double[] chassis) {
+        chassis[DriveKinematics.VX] = (wheels[LEFT] + wheels[RIGHT]) / 2;
+        chassis[DriveKinematics.VY] = 0;
+        chassis[DriveKinematics.OMEGA] = (wheels[RIGHT] - wheels[LEFT]) / (2 * halfTrackWidth);
+    }
+
+    /**
+     * Computes the distance each side must travel to turn in place by an angle.
+     *
+     * @param angleRadians The angle to turn, counter-clockwise positive
+     * @param wheels The {left, right} array the distances are written to, in meters
+     */
+    public void turnInPlace(double angleRadians, double[] wheels) {
+        double arc = angleRadians * halfTrackWidth;
+        wheels[LEFT] = -arc;
+        wheels[RIGHT] = arc;
+    }
+}
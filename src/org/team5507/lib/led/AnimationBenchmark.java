@@ -0,0 +1,62 @@
+package org.team5507.lib.led;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+
+/**
+ * Compares playing a {@link CompiledAnimation} with drawing the same rainbow every frame, both
+ * pixel by pixel with {@link AddressableLEDBuffer#setHSV} and with {@link LEDFill#gradient}. Run
+ * it on the roboRIO or a desktop JVM:
+ *
+ * <pre>
+ * java -cp lib5507.jar org.team5507.lib.led.AnimationBenchmark [LEDS]
+ * </pre>
+ *
+ * <p>Prints the time per frame of each path for several rounds. The first rounds include JIT
+ * warm-up. Only the buffer is written; pushing it to the strip costs the same for every path.
+ */
+public final class AnimationBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int FRAMES = 200_000;
+
+    private AnimationBenchmark() {}
+
+    public static void main(String[] args) {
+        int leds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        AddressableLEDBuffer buffer = new AddressableLEDBuffer(leds);
+        CompiledAnimation rainbow = AnimationCompiler.rainbow(leds);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int firstHue = 0;
+            for (int frame = 0; frame < FRAMES; frame++) {
+                for (int i = 0; i < leds; i++) {
+                    buffer.setHSV(i, (firstHue + i * 180 / leds) % 180, 255, 128);
+                }
+                firstHue = (firstHue + 3) % 180;
+            }
+            long perPixel = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            firstHue = 0;
+            for (int frame = 0; frame < FRAMES; frame++) {
+                LEDFill.gradient(buffer, 0, leds, firstHue, leds, 128);
+                firstHue = (firstHue + 3) % 180;
+            }
+            long table = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                rainbow.apply(buffer, 0, frame % rainbow.getFrameCount());
+            }
+            long compiled = System.nanoTime() - start;
+
+            System.out.printf(
+                    "round %d: setHSV %.0f ns/frame, LEDFill %.0f ns/frame, compiled %.0f"
+                            + " ns/frame%n",
+                    round + 1,
+                    (double) perPixel / FRAMES,
+                    (double) table / FRAMES,
+                    (double) compiled / FRAMES);
+        }
+    }
+}
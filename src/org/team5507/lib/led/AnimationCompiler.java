@@ -0,0 +1,161 @@
+package org.team5507.lib.led;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Precomputes LED patterns into {@link CompiledAnimation}s for a given strip length. The built-in
+ * patterns reproduce what {@link LEDStrip} draws, so a robot can switch to compiled playback
+ * without the strip looking different. LEDStrip spreads its patterns over the whole buffer,
+ * including the first {@code start} pixels it leaves dark, so a strip created with a start offset
+ * needs the overloads that take one, and the frames applied at that offset. Compiling allocates
+ * and is meant to happen once, e.g. in robotInit. {@link AnimationBenchmark} compares playback
+ * with drawing every frame.
+ *
+ * <pre>
+ * CompiledAnimation rainbow = AnimationCompiler.rainbow(60);
+ * // Every loop
+ * rainbow.apply(buffer, 0, rainbow.frameAt(Timer.getFPGATimestamp()));
+ * led.setData(buffer);
+ * </pre>
+ */
+public final class AnimationCompiler {
+    private AnimationCompiler() {}
+
+    /**
+     * Compiles an arbitrary pattern.
+     *
+     * @param length The number of pixels
+     * @param frameCount The number of frames
+     * @param frameSeconds How long each frame is shown, or 0 if frames are not chosen by time
+     * @param pattern Returns the packed {@code 0xRRGGBB} color of a pixel, given the frame and
+     *     pixel index
+     * @return The compiled animation
+     */
+    public static CompiledAnimation compile(
+            int length, int frameCount, double frameSeconds, IntBinaryOperator pattern) {
+        if (length < 1 || frameCount < 1) {
+            throw new IllegalArgumentException("length and frameCount must be positive");
+        }
+        byte[] frames = new byte[3 * length * frameCount];
+        int offset = 0;
+        for (int frame = 0; frame < frameCount; frame++) {
+            for (int pixel = 0; pixel < length; pixel++) {
+                int rgb = pattern.applyAsInt(frame, pixel);
+                frames[offset++] = (byte) (rgb >> 16);
+                frames[offset++] = (byte) (rgb >> 8);
+                frames[offset++] = (byte) rgb;
+            }
+        }
+        return new CompiledAnimation(frames, length, frameCount, frameSeconds);
+    }
+
+    /**
+     * Compiles the moving rainbow of {@link LEDStrip#MODE_RAINBOW}, which shifts 3 hues per 20 ms
+     * frame and repeats after 60 frames.
+     *
+     * @param length The number of pixels
+     * @return The compiled animation
+     */
+    public static CompiledAnimation rainbow(int length) {
+        return rainbow(length, 0);
+    }
+
+    /**
+     * Compiles the moving rainbow of {@link LEDStrip#MODE_RAINBOW} for a strip with a start
+     * offset.
+     *
+     * @param leds The number of pixels, as passed to {@link LEDStrip#LEDStrip(int, int, int)}
+     * @param start The start offset of the strip; apply the frames at this offset
+     * @return The compiled animation
+     */
+    public static CompiledAnimation rainbow(int leds, int start) {
+        int span = leds + start;
+        return compile(
+                leds,
+                60,
+                0.02,
+                (frame, pixel) -> HsvTable.rgb((3 * frame + pixel * 180 / span) % 180, 128));
+    }
+
+    /**
+     * Compiles the wave of {@link LEDStrip#MODE_WAVE}, stepping as often as {@link LEDStrip} does
+     * on the 20 ms loop.
+     *
+     * @param length The number of pixels
+     * @param color One of {@link LEDStrip.LEDS.Colors}
+     * @return The compiled animation
+     */
+    public static CompiledAnimation wave(int length, int color) {
+        return wave(length, color, 0.04);
+    }
+
+    /**
+     * Compiles the wave of {@link LEDStrip#MODE_WAVE}: light fills in from both ends towards the
+     * middle, then drains back out the same way.
+     *
+     * @param length The number of pixels
+     * @param color One of {@link LEDStrip.LEDS.Colors}
+     * @param stepSeconds How long each step of the wave is shown
+     * @return The compiled animation
+     */
+    public static CompiledAnimation wave(int length, int color, double stepSeconds) {
+        return wave(length, 0, color, stepSeconds);
+    }
+
+    /**
+     * Compiles the wave of {@link LEDStrip#MODE_WAVE} for a strip with a start offset.
+     *
+     * @param leds The number of pixels, as passed to {@link LEDStrip#LEDStrip(int, int, int)}
+     * @param start The start offset of the strip; apply the frames at this offset
+     * @param color One of {@link LEDStrip.LEDS.Colors}
+     * @param stepSeconds How long each step of the wave is shown
+     * @return The compiled animation
+     */
+    public static CompiledAnimation wave(int leds, int start, int color, double stepSeconds) {
+        int steps = (leds + start) / 2 + 1;
+        int on = HsvTable.rgb(LEDStrip.hueOf(color), 255);
+        return compile(
+                leds,
+                2 * steps,
+                stepSeconds,
+                (frame, pixel) -> {
+                    boolean entering = frame < steps;
+                    int iteration = frame % steps;
+                    boolean edge = pixel < iteration || pixel >= leds - iteration;
+                    return edge == entering ? on : 0;
+                });
+    }
+
+    /**
+     * Compiles the bar of {@link LEDStrip#MODE_BAR}. Frames are not chosen by time; frame {@code
+     * p} is the bar at {@code p} percent, from 0 to 100.
+     *
+     * @param length The number of pixels
+     * @return The compiled animation
+     */
+    public static CompiledAnimation bar(int length) {
+        return bar(length, 0);
+    }
+
+    /**
+     * Compiles the bar of {@link LEDStrip#MODE_BAR} for a strip with a start offset.
+     *
+     * @param leds The number of pixels, as passed to {@link LEDStrip#LEDStrip(int, int, int)}
+     * @param start The start offset of the strip; apply the frames at this offset
+     * @return The compiled animation
+     */
+    public static CompiledAnimation bar(int leds, int start) {
+        int half = (leds + start) / 2;
+        return compile(
+                leds,
+                101,
+                0,
+                (percentage, pixel) -> {
+                    long size = Math.round(percentage / 100.0 * half);
+                    if (pixel < half - size || pixel >= half + size) {
+                        return 0;
+                    }
+                    return HsvTable.rgb(LEDStrip.barHue(percentage), 255);
+                });
+    }
+}
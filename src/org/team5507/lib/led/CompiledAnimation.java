@@ -0,0 +1,94 @@
+package org.team5507.lib.led;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+
+/**
+ * The frames of an LED pattern for one strip length, computed once by {@link AnimationCompiler}
+ * and stored as packed RGB bytes, three per pixel and frame after frame. Playing a frame is one
+ * {@code setRGB} per pixel from the stored bytes, with no hue math or HSV conversion per pixel.
+ * {@link AddressableLEDBuffer} has no bulk setter, so it is not a single array copy.
+ */
+public class CompiledAnimation {
+    private final byte[] frames;
+    private final int length;
+    private final int frameCount;
+    private final double frameSeconds;
+
+    /**
+     * Wraps already compiled frames.
+     *
+     * @param frames The frames, {@code 3 * length * frameCount} bytes of RGB
+     * @param length The number of pixels per frame
+     * @param frameCount The number of frames
+     * @param frameSeconds How long each frame is shown, or 0 if frames are not chosen by time
+     */
+    CompiledAnimation(byte[] frames, int length, int frameCount, double frameSeconds) {
+        if (frames.length != 3 * length * frameCount) {
+            throw new IllegalArgumentException("frames does not hold " + frameCount + " frames");
+        }
+        this.frames = frames;
+        this.length = length;
+        this.frameCount = frameCount;
+        this.frameSeconds = frameSeconds;
+    }
+
+    /**
+     * Returns the frame to show at a point in time, looping the animation.
+     *
+     * @param seconds The time since the animation started, e.g. from the FPGA timestamp
+     * @return The frame index
+     */
+    public int frameAt(double seconds) {
+        if (frameSeconds <= 0) {
+            return 0;
+        }
+        long frame = (long) Math.floor(seconds / frameSeconds) % frameCount;
+        return (int) (frame < 0 ? frame + frameCount : frame);
+    }
+
+    /**
+     * Writes a frame into an LED buffer.
+     *
+     * @param buffer The buffer to write
+     * @param start The buffer index of the first pixel of the frame
+     * @param frame The frame index
+     */
+    public void apply(AddressableLEDBuffer buffer, int start, int frame) {
+        int offset = 3 * length * frame;
+        for (int i = 0; i < length; i++) {
+            buffer.setRGB(
+                    start + i,
+                    frames[offset] & 0xFF,
+                    frames[offset + 1] & 0xFF,
+                    frames[offset + 2] & 0xFF);
+            offset += 3;
+        }
+    }
+
+    /**
+     * Returns one pixel of a frame.
+     *
+     * @param frame The frame index
+     * @param pixel The pixel index
+     * @return The pixel as packed {@code 0xRRGGBB}
+     */
+    public int getPixel(int frame, int pixel) {
+        int offset = 3 * (length * frame + pixel);
+        return (frames[offset] & 0xFF) << 16
+                | (frames[offset + 1] & 0xFF) << 8
+                | (frames[offset + 2] & 0xFF);
+    }
+
+    /** @return The number of pixels per frame */
+    public int getLength() {
+        return length;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public double getFrameSeconds() {
+        return frameSeconds;
+    }
+}
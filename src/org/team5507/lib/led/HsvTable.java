@@ -0,0 +1,76 @@
+package org.team5507.lib.led;
+
+/**
+ * HSV to packed {@code 0xRRGGBB} conversion through a precomputed table of every hue (0-179) and
+ * value (0-255) at full saturation, which is what all of the library's patterns draw. A lookup
+ * replaces the divisions and branches of {@code AddressableLEDBuffer.setHSV} and gives exactly the
+ * same colors. Other saturations fall back to computing the color.
+ *
+ * <p>The table takes 180 KB and is built the first time it is used.
+ */
+public final class HsvTable {
+    private static final int VALUES = 256;
+    private static final int[] TABLE = new int[180 * VALUES];
+
+    static {
+        for (int h = 0; h < 180; h++) {
+            for (int v = 0; v < VALUES; v++) {
+                TABLE[h * VALUES + v] = compute(h, 255, v);
+            }
+        }
+    }
+
+    private HsvTable() {}
+
+    /**
+     * Returns a fully saturated color.
+     *
+     * @param h The hue, from 0 to 179
+     * @param v The value, from 0 to 255
+     * @return The packed color
+     */
+    public static int rgb(int h, int v) {
+        return TABLE[h * VALUES + v];
+    }
+
+    /**
+     * Returns a color, from the table when it is fully saturated.
+     *
+     * @param h The hue, from 0 to 179
+     * @param s The saturation, from 0 to 255
+     * @param v The value, from 0 to 255
+     * @return The packed color
+     */
+    public static int rgb(int h, int s, int v) {
+        return s == 255 ? TABLE[h * VALUES + v] : compute(h, s, v);
+    }
+
+    /**
+     * Converts HSV to packed RGB with the same integer math as {@code
+     * AddressableLEDBuffer.setHSV}, so table colors match live-drawn ones exactly.
+     */
+    static int compute(int h, int s, int v) {
+        if (s == 0) {
+            return v << 16 | v << 8 | v;
+        }
+        int region = h / 30;
+        int remainder = (h - region * 30) * 6;
+        int p = (v * (255 - s)) >> 8;
+        int q = (v * (255 - ((s * remainder) >> 8))) >> 8;
+        int t = (v * (255 - ((s * (255 - remainder)) >> 8))) >> 8;
+        switch (region) {
+            case 0:
+                return v << 16 | t << 8 | p;
+            case 1:
+                return q << 16 | v << 8 | p;
+            case 2:
+                return p << 16 | v << 8 | t;
+            case 3:
+                return p << 16 | q << 8 | v;
+            case 4:
+                return t << 16 | p << 8 | v;
+            default:
+                return v << 16 | p << 8 | q;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.team5507.lib.led;
+
+import edu.wpi.first.wpilibj.AddressableLED;
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns the roboRIO's one {@link AddressableLED} and splits it into independent segments, so
+ * different parts of the strip can show different effects. Segments may overlap: each pixel
+ * shows the highest priority visible segment that covers it and is not transparent there, with
+ * later segments winning ties. This makes a segment over the whole strip usable as a background
+ * and a small high priority segment usable as an overlay.
+ *
+ * <p>Segments only mark the compositor dirty. {@link #update()} merges them and pushes the strip
+ * with a single {@code setData} call, and only if some pixel actually changed. Do not create an
+ * {@link LEDStrip} or {@link PWMLed} alongside a compositor, as they open their own
+ * AddressableLED.
+ *
+ * <pre>
+ * LEDCompositor leds = new LEDCompositor(0, 60);
+ * LEDCompositor.Segment base = leds.addSegment(0, 60, 0);
+ * LEDCompositor.Segment intake = leds.addSegment(0, 10, 1);
+ * // robotPeriodic()
+ * base.draw(rainbow, rainbow.frameAt(Timer.getFPGATimestamp()));
+ * intake.fill(hasGamePiece ? 0x00FF00 : LEDCompositor.TRANSPARENT);
+ * leds.update();
+ * </pre>
+ */
+public class LEDCompositor {
+    /** A pixel value that lets lower priority segments show through. */
+    public static final int TRANSPARENT = -1;
+
+    /** A range of the strip drawn independently of the rest. Colors are packed 0xRRGGBB. */
+    public class Segment {
+        private final int start;
+        private final int[] pixels;
+        private int priority;
+        private boolean visible = true;
+
+        private Segment(int start, int length, int priority) {
+            this.start = start;
+            this.pixels = new int[length];
+            this.priority = priority;
+            clear();
+        }
+
+        /**
+         * Sets one pixel.
+         *
+         * @param index The pixel index within the segment
+         * @param rgb The packed color, or {@link #TRANSPARENT}
+         */
+        public void set(int index, int rgb) {
+            if (pixels[index] != rgb) {
+                pixels[index] = rgb;
+                markDirty();
+            }
+        }
+
+        public void setRGB(int index, int r, int g, int b) {
+            set(index, (r & 0xFF) << 16 | (g & 0xFF) << 8 | (b & 0xFF));
+        }
+
+        public void setHSV(int index, int h, int s, int v) {
+            set(index, HsvTable.rgb(h, s, v));
+        }
+
+        /**
+         * Sets every pixel of the segment to one color.
+         *
+         * @param rgb The packed color, or {@link #TRANSPARENT}
+         */
+        public void fill(int rgb) {
+            for (int i = 0; i < pixels.length; i++) {
+                set(i, rgb);
+            }
+        }
+
+        /** Makes the whole segment transparent. */
+        public void clear() {
+            fill(TRANSPARENT);
+        }
+
+        /**
+         * Draws a frame of a compiled animation into the segment. Pixels beyond the shorter of
+         * the two lengths are left alone.
+         *
+         * @param animation The animation
+         * @param frame The frame index
+         */
+        public void draw(CompiledAnimation animation, int frame) {
+            int count = Math.min(pixels.length, animation.getLength());
+            for (int i = 0; i < count; i++) {
+                set(i, animation.getPixel(frame, i));
+            }
+        }
+
+        /**
+         * Shows or hides the segment. A hidden segment keeps its pixels.
+         *
+         * @param visible Whether the segment is drawn
+         */
+        public void setVisible(boolean visible) {
+            if (this.visible != visible) {
+                this.visible = visible;
+                markDirty();
+            }
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public void setPriority(int priority) {
+            if (this.priority != priority) {
+                this.priority = priority;
+                sortSegments();
+                markDirty();
+            }
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getLength() {
+            return pixels.length;
+        }
+    }
+
+    private final AddressableLED led;
+    private final AddressableLEDBuffer buffer;
+    private final List<Segment> segments = new ArrayList<>();
+    private final int[] frame;
+    private final int[] pushed;
+    private boolean dirty = true;
+
+    /**
+     * Creates the compositor and starts the strip.
+     *
+     * @param port The PWM port of the strip
+     * @param length The number of pixels on the strip
+     */
+    public LEDCompositor(int port, int length) {
+        led = new AddressableLED(port);
+        buffer = new AddressableLEDBuffer(length);
+        led.setLength(length);
+        frame = new int[length];
+        pushed = new int[length];
+
+        led.setData(buffer);
+        led.start();
+    }
+
+    /**
+     * Adds a segment. It starts out transparent.
+     *
+     * @param start The index of the segment's first pixel on the strip
+     * @param length The number of pixels in the segment
+     * @param priority Segments with a higher priority are drawn over lower ones
+     * @return The segment
+     */
+    public Segment addSegment(int start, int length, int priority) {
+        if (start < 0 || length < 1 || start + length > frame.length) {
+            throw new IllegalArgumentException(
+                    "Segment [" + start + ", " + (start + length) + ") is not on the strip");
+        }
+        Segment segment = new Segment(start, length, priority);
+        segments.add(segment);
+        sortSegments();
+        markDirty();
+        return segment;
+    }
+
+    /** Merges the segments and pushes the strip if any pixel changed. Call once per loop. */
+    public void update() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = 0;
+        }
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            if (!segment.visible) {
+                continue;
+            }
+            int[] pixels = segment.pixels;
+            for (int i = 0; i < pixels.length; i++) {
+                if (pixels[i] != TRANSPARENT) {
+                    frame[segment.start + i] = pixels[i];
+                }
+            }
+        }
+
+        boolean changed = false;
+        for (int i = 0; i < frame.length; i++) {
+            int rgb = frame[i];
+            if (rgb != pushed[i]) {
+                buffer.setRGB(i, rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+                pushed[i] = rgb;
+                changed = true;
+            }
+        }
+        if (changed) {
+            led.setData(buffer);
+        }
+    }
+
+    /** Forces the next {@link #update()} to push the strip, e.g. after it was power cycled. */
+    public void invalidate() {
+        dirty = true;
+        for (int i = 0; i < pushed.length; i++) {
+            pushed[i] = TRANSPARENT;
+        }
+    }
+
+    public int getLength() {
+        return frame.length;
+    }
+
+    private void markDirty() {
+        dirty = true;
+    }
+
+    /** Insertion sort by priority, which keeps segments of equal priority in the order added. */
+    private void sortSegments() {
+        for (int i = 1; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            int j = i - 1;
+            while (j >= 0 && segments.get(j).priority > segment.priority) {
+                segments.set(j + 1, segments.get(j));
+                j--;
+            }
+            segments.set(j + 1, segment);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.team5507.lib.led;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+
+/**
+ * Bulk writes to an {@link AddressableLEDBuffer}. Each fill converts its color once and then
+ * writes a run of identical pixels, instead of converting HSV again for every pixel. Ranges are
+ * half open: {@code from} is written and {@code to} is not.
+ */
+public final class LEDFill {
+    private LEDFill() {}
+
+    /**
+     * Sets a range of pixels to one color.
+     *
+     * @param buffer The buffer to write
+     * @param from The first pixel
+     * @param to The pixel after the last
+     * @param rgb The packed {@code 0xRRGGBB} color
+     */
+    public static void fill(AddressableLEDBuffer buffer, int from, int to, int rgb) {
+        int r = rgb >> 16 & 0xFF;
+        int g = rgb >> 8 & 0xFF;
+        int b = rgb & 0xFF;
+        for (int i = from; i < to; i++) {
+            buffer.setRGB(i, r, g, b);
+        }
+    }
+
+    /**
+     * Sets a range of pixels to one fully saturated color.
+     *
+     * @param buffer The buffer to write
+     * @param from The first pixel
+     * @param to The pixel after the last
+     * @param h The hue, from 0 to 179
+     * @param v The value, from 0 to 255
+     */
+    public static void fillHSV(AddressableLEDBuffer buffer, int from, int to, int h, int v) {
+        fill(buffer, from, to, HsvTable.rgb(h, v));
+    }
+
+    /**
+     * Draws a rainbow over a range: pixel {@code from + i} gets hue {@code (firstHue + i * 180 /
+     * pixelsPerCycle) % 180}, as in {@link LEDStrip#MODE_RAINBOW}.
+     *
+     * @param buffer The buffer to write
+     * @param from The first pixel
+     * @param to The pixel after the last
+     * @param firstHue The hue of the first pixel
+     * @param pixelsPerCycle The number of pixels over which the hue goes all the way around
+     * @param v The value, from 0 to 255
+     */
+    public static void gradient(
+            AddressableLEDBuffer buffer,
+            int from,
+            int to,
+            int firstHue,
+            int pixelsPerCycle,
+            int v) {
+        for (int i = 0; i < to - from; i++) {
+            int rgb = HsvTable.rgb((firstHue + i * 180 / pixelsPerCycle) % 180, v);
+            buffer.setRGB(from + i, rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+        }
+    }
+
+    /**
+     * Draws a lit run inside a range and clears the rest of it, as in a bar graph or a wave.
+     *
+     * @param buffer The buffer to write
+     * @param from The first pixel of the range
+     * @param to The pixel after the last of the range
+     * @param litFrom The first lit pixel
+     * @param litTo The pixel after the last lit pixel
+     * @param on The packed color of lit pixels
+     * @param off The packed color of the other pixels
+     */
+    public static void bar(
+            AddressableLEDBuffer buffer,
+            int from,
+            int to,
+            int litFrom,
+            int litTo,
+            int on,
+            int off) {
+        litFrom = Math.max(from, Math.min(to, litFrom));
+        litTo = Math.max(litFrom, Math.min(to, litTo));
+        fill(buffer, from, litFrom, off);
+        fill(buffer, litFrom, litTo, on);
+        fill(buffer, litTo, to, off);
+    }
+}
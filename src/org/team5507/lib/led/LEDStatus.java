@@ -0,0 +1,204 @@
+package org.team5507.lib.led;
+
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides what an {@link LEDStrip} shows when several subsystems want to use it. Instead of
+ * calling the strip's setters, each subsystem registers an {@link Indication} with a priority and
+ * a pattern, and shows it, optionally for a limited time. Once per loop, {@link #update()} picks
+ * the highest priority indication that is showing, the most recently shown one among equals, and
+ * changes the strip only when that choice or its pattern changes. Showing an indication that is
+ * already showing just extends it, so subsystems may call {@link Indication#show} every cycle
+ * without the strip flickering.
+ *
+ * <pre>
+ * LEDStatus status = new LEDStatus(strip, LEDStrip.MODE_RAINBOW, Colors.RED);
+ * Indication acquired = status.register("Game piece", 10, LEDStrip.MODE_SOLID, Colors.GREEN);
+ * Indication aligned = status.register("Aligned", 5, LEDStrip.MODE_WAVE, Colors.BLUE);
+ *
+ * // In the intake subsystem, when the beam break trips
+ * acquired.show(1.0);
+ * // Every cycle in the drive subsystem
+ * aligned.set(isAligned());
+ * // robotPeriodic()
+ * status.update();
+ * strip.update();
+ * </pre>
+ */
+public class LEDStatus {
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    /** A pattern a subsystem wants to show. */
+    public class Indication {
+        private final String name;
+        private final int priority;
+        private final int mode;
+        private final int color;
+        private int percentage = 0;
+        private long expiresMicros = 0;
+        private long shownMicros = 0;
+
+        private Indication(String name, int priority, int mode, int color) {
+            this.name = name;
+            this.priority = priority;
+            this.mode = mode;
+            this.color = color;
+        }
+
+        /**
+         * Shows the indication for a limited time. Showing it again before it ends extends it.
+         *
+         * @param seconds How long to show it for
+         */
+        public void show(double seconds) {
+            long now = RobotController.getFPGATime();
+            // The cast saturates, and so does the sum, so a huge timeout means forever
+            long micros = (long) (seconds * 1e6);
+            long until = micros >= FOREVER - now ? FOREVER : now + micros;
+            if (!isShowing(now)) {
+                shownMicros = now;
+                expiresMicros = until;
+            } else if (until > expiresMicros) {
+                expiresMicros = until;
+            }
+        }
+
+        /** Shows the indication until {@link #clear()} is called. */
+        public void show() {
+            long now = RobotController.getFPGATime();
+            if (!isShowing(now)) {
+                shownMicros = now;
+            }
+            expiresMicros = FOREVER;
+        }
+
+        /**
+         * Shows or clears the indication depending on a condition, for subsystems that check the
+         * condition every cycle.
+         *
+         * @param showing Whether the indication should show
+         */
+        public void set(boolean showing) {
+            if (showing) {
+                show();
+            } else {
+                clear();
+            }
+        }
+
+        public void clear() {
+            expiresMicros = 0;
+        }
+
+        /**
+         * Sets the percentage shown when the indication's mode is {@link LEDStrip#MODE_BAR}.
+         *
+         * @param percentage The percentage, from 0 to 100
+         */
+        public void setPercentage(int percentage) {
+            this.percentage = percentage;
+        }
+
+        public boolean isShowing() {
+            return isShowing(RobotController.getFPGATime());
+        }
+
+        private boolean isShowing(long now) {
+            return now < expiresMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private final LEDStrip strip;
+    private final List<Indication> indications = new ArrayList<>();
+    private int defaultMode;
+    private int defaultColor;
+
+    private Indication applied;
+    private int appliedMode = -1;
+    private int appliedColor = -1;
+    private int appliedPercentage = -1;
+
+    /**
+     * Creates a status layer for a strip.
+     *
+     * @param strip The strip to drive. Nothing else should call its setters.
+     * @param defaultMode The mode shown when no indication is showing
+     * @param defaultColor The color shown when no indication is showing
+     */
+    public LEDStatus(LEDStrip strip, int defaultMode, int defaultColor) {
+        this.strip = strip;
+        this.defaultMode = defaultMode;
+        this.defaultColor = defaultColor;
+    }
+
+    /**
+     * Registers an indication. Register indications once, e.g. in subsystem constructors.
+     *
+     * @param name The name of the indication
+     * @param priority Indications with a higher priority win over lower ones
+     * @param mode One of the {@link LEDStrip} modes
+     * @param color One of {@link LEDStrip.LEDS.Colors}
+     * @return The indication
+     */
+    public Indication register(String name, int priority, int mode, int color) {
+        Indication indication = new Indication(name, priority, mode, color);
+        indications.add(indication);
+        return indication;
+    }
+
+    /**
+     * Sets the pattern shown when no indication is showing, e.g. the alliance color.
+     *
+     * @param mode One of the {@link LEDStrip} modes
+     * @param color One of {@link LEDStrip.LEDS.Colors}
+     */
+    public void setDefault(int mode, int color) {
+        this.defaultMode = mode;
+        this.defaultColor = color;
+    }
+
+    /** Picks the winning indication and updates the strip if it changed. Call once per loop. */
+    public void update() {
+        long now = RobotController.getFPGATime();
+        Indication winner = null;
+        for (int i = 0; i < indications.size(); i++) {
+            Indication indication = indications.get(i);
+            if (!indication.isShowing(now)) {
+                continue;
+            }
+            if (winner == null
+                    || indication.priority > winner.priority
+                    || (indication.priority == winner.priority
+                            && indication.shownMicros > winner.shownMicros)) {
+                winner = indication;
+            }
+        }
+
+        int mode = winner != null ? winner.mode : defaultMode;
+        int color = winner != null ? winner.color : defaultColor;
+        int percentage = winner != null ? winner.percentage : 0;
+        applied = winner;
+        if (mode == appliedMode && color == appliedColor && percentage == appliedPercentage) {
+            return;
+        }
+        strip.set(mode, color, percentage);
+        appliedMode = mode;
+        appliedColor = color;
+        appliedPercentage = percentage;
+    }
+
+    /** @return The indication on the strip after the last update, or null for the default */
+    public Indication getActive() {
+        return applied;
+    }
+}
@@ -4,7 +4,10 @@ package org.team5507.lib.led;
 
 import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
 //import frc.robot.Constants.LEDS.Colors;
+import org.team5507.lib.control.SharedState;
 import org.team5507.lib.led.LEDStrip.LEDS.Colors;
 
 public class LEDStrip {
@@ -18,6 +21,22 @@ public class LEDStrip {
     private int mode = 0;
     private int percentage = 0;
     private int start = 0;
+    private int renderedMode = -1;
+    private int renderedColor;
+    private int renderedPercentage;
+    private int renderedIteration;
+    private boolean renderedEntering;
+
+    // Used only while rendering on its own thread
+    private static final int POSTED_MODE = 0;
+    private static final int POSTED_COLOR = 1;
+    private static final int POSTED_PERCENTAGE = 2;
+    private static final long WAVE_STEP_MICROS = 40_000;
+    private static final long RAINBOW_STEP_MICROS = 20_000;
+    private Notifier renderThread;
+    private SharedState posted;
+    private final double[] postedSnapshot = new double[3];
+    private long renderStartMicros;
 
     public static final int MODE_WAVE = 0;
     public static final int MODE_BAR = 1;
@@ -50,6 +69,84 @@ public class LEDStrip {
 
     public void update() {
        // System.out.println("mode - " + this.mode);
+        if (this.renderThread != null) {
+            // The render thread draws the strip
+            return;
+        }
+        if (this.mode == 0) {
+            this.advanceWave();
+        }
+        this.render();
+    }
+
+    /**
+     * Moves rendering onto its own thread, running every 20 ms. See {@link
+     * #startRenderThread(double)}.
+     */
+    public void startRenderThread() {
+        startRenderThread(0.02);
+    }
+
+    /**
+     * Moves rendering off the main loop onto its own fixed-rate thread. Animations are then timed
+     * from the FPGA clock rather than counted in update() calls, so they keep their speed when the
+     * main loop stalls. After this, update() does nothing, and set(), setMode(), setColor() and
+     * setPercentage() post to the render thread through a lock-free {@link SharedState}, which
+     * the render thread reads once per frame.
+     *
+     * @param period The time between frames in seconds
+     */
+    public void startRenderThread(double period) {
+        if (this.renderThread != null) {
+            return;
+        }
+        this.posted = new SharedState(3);
+        this.posted.beginWrite();
+        this.posted.set(POSTED_MODE, this.mode);
+        this.posted.set(POSTED_COLOR, this.color);
+        this.posted.set(POSTED_PERCENTAGE, this.percentage);
+        this.posted.endWrite();
+        this.renderStartMicros = RobotController.getFPGATime();
+        this.renderThread = new Notifier(this::renderFrame);
+        this.renderThread.setName("LEDStrip");
+        this.renderThread.startPeriodic(period);
+    }
+
+    /** Stops the render thread and goes back to rendering from update(). */
+    public void stopRenderThread() {
+        if (this.renderThread == null) {
+            return;
+        }
+        // Closing waits for the thread to exit, so the fields below are ours again
+        this.renderThread.close();
+        this.renderThread = null;
+        this.posted.read(this.postedSnapshot);
+        this.mode = (int) this.postedSnapshot[POSTED_MODE];
+        this.color = (int) this.postedSnapshot[POSTED_COLOR];
+        this.percentage = (int) this.postedSnapshot[POSTED_PERCENTAGE];
+        this.posted = null;
+    }
+
+    private void renderFrame() {
+        this.posted.read(this.postedSnapshot);
+        this.mode = (int) this.postedSnapshot[POSTED_MODE];
+        this.color = (int) this.postedSnapshot[POSTED_COLOR];
+        this.percentage = (int) this.postedSnapshot[POSTED_PERCENTAGE];
+
+        long elapsed = RobotController.getFPGATime() - this.renderStartMicros;
+        long waveStep = elapsed / WAVE_STEP_MICROS;
+        int steps = (this.m_ledBuffer.getLength() / 2) + 1;
+        this.iteration = (int) (waveStep % steps);
+        this.entering = (waveStep / steps) % 2 == 0;
+        this.m_rainbowFirstPixelHue = (int) (elapsed / RAINBOW_STEP_MICROS * 3 % 180);
+        this.render();
+    }
+
+    private void render() {
+        if (!this.isDirty()) {
+            // Nothing on the strip would change, so skip rendering and the push
+            return;
+        }
         if (this.mode == 0 || this.mode == 3) {
             this.wave();
         } else if (this.mode == 1) {
@@ -58,22 +155,49 @@ public class LEDStrip {
             this.rainbow();
             m_led.setData(m_ledBuffer);
         } else if (this.mode == 4) {
-            for (int i = 0; i < this.m_ledBuffer.getLength() - start; i++) {
-                m_ledBuffer.setHSV(i + start, 0, 255, 0);
-            }
+            LEDFill.fill(m_ledBuffer, start, m_ledBuffer.getLength(), 0);
             m_led.setData(m_ledBuffer);
         }
+        this.renderedMode = this.mode;
+        this.renderedColor = this.color;
+        this.renderedPercentage = this.percentage;
+        this.renderedIteration = this.iteration;
+        this.renderedEntering = this.entering;
     }
 
-    private void rainbow() {
-        // For every pixel
-        for (var i = 0; i < m_ledBuffer.getLength() - start; i++) {
-            // Calculate the hue - hue is easier for rainbows because the color
-            // shape is a circle so only one value needs to precess
-            final var hue = (m_rainbowFirstPixelHue + (i * 180 / m_ledBuffer.getLength())) % 180;
-            // Set the value
-            m_ledBuffer.setHSV(i + start, hue, 255, 128);
+    /**
+     * Whether the frame update() would draw differs from the one last pushed. Solid, off and bar
+     * frames only change with the mode, color or percentage, and wave frames only when the
+     * animation steps, so static patterns cost almost nothing per loop. Rainbow moves every frame.
+     */
+    private boolean isDirty() {
+        if (this.mode != this.renderedMode || this.mode == 2) {
+            return true;
+        }
+        switch (this.mode) {
+            case 0:
+                return this.color != this.renderedColor
+                        || this.iteration != this.renderedIteration
+                        || this.entering != this.renderedEntering;
+            case 1:
+                return this.percentage != this.renderedPercentage;
+            case 3:
+                return this.color != this.renderedColor;
+            default:
+                return false;
         }
+    }
+
+    /** Forces the next update() to redraw and push the frame, e.g. after the strip was reset. */
+    public void invalidate() {
+        this.renderedMode = -1;
+    }
+
+    private void rainbow() {
+        // Hue is easier for rainbows because the color shape is a circle so only one value needs
+        // to precess
+        int length = m_ledBuffer.getLength();
+        LEDFill.gradient(m_ledBuffer, start, length, m_rainbowFirstPixelHue, length, 128);
         // Increase by to make the rainbow "move"
         m_rainbowFirstPixelHue += 3;
         // Check bounds
@@ -83,104 +207,40 @@ public class LEDStrip {
     private void wave() {
         // set the hue to the selected color
         
-        int hue = 0;
-        switch (color) {
-            case Colors.RED:
-                hue = 0;
-                break;
-
-            case Colors.PINK:
-                hue = 175;
-                break;
-
-            case Colors.PURPLE:
-                hue = 150;
-                break;
-
-            case Colors.BLUE:
-                hue = 120;
-                break;
-
-            case Colors.CYAN:
-                hue = 100;
-                break;
-
-            case Colors.GREEN:
-                hue = 45;
-                break;
-
-            case Colors.YELLOW:
-                hue = 20;
-                break
-                
-                ;
-
-            case Colors.ORANGE:
-                hue = 11;
-                break;
-        }
+        int hue = hueOf(this.color);
         //System.out.println("LED H" + hue + " - " + color );
+        int on = HsvTable.rgb(hue, 255);
+        int end = this.m_ledBuffer.getLength();
         if (this.mode == 0) {
-            // draw leds as animation
+            // draw leds as animation: the ends are lit while entering and dark while leaving
+            int middleFrom = start + this.iteration;
+            int middleTo = end - this.iteration;
             if (this.entering) {
-                for (int i = 0; i < this.iteration; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 255);
-                }
-
-                for (int i = this.iteration; i < this.m_ledBuffer.getLength() - iteration - start; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 0);
-                }
-
-                for (int i = this.m_ledBuffer.getLength() - iteration - start; i < this.m_ledBuffer.getLength()
-                        - start; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 255);
-                }
+                LEDFill.bar(m_ledBuffer, start, end, middleFrom, middleTo, 0, on);
             } else {
-                for (int i = 0; i < this.iteration; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 0);
-                }
-
-                for (int i = this.iteration; i < this.m_ledBuffer.getLength() - iteration - start; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 255);
-                }
-
-                for (int i = this.m_ledBuffer.getLength() - iteration - start; i < this.m_ledBuffer.getLength()
-                        - start; i++) {
-                    m_ledBuffer.setHSV(i + start, hue, 255, 0);
-                }
-            }
-
-            if (System.currentTimeMillis() - 25 > this.lastTime) {
-                this.iteration++;
-                this.lastTime = System.currentTimeMillis();
-            }
-            if (this.iteration == (this.m_ledBuffer.getLength() / 2) + 1) {
-                this.iteration = 0;
-                this.entering = !this.entering;
+                LEDFill.bar(m_ledBuffer, start, end, middleFrom, middleTo, on, 0);
             }
         } else {
-            for (int i = 0; i < this.m_ledBuffer.getLength() - start; i++) {
-                this.m_ledBuffer.setHSV(i + start, hue, 255, 255);
-            }
+            LEDFill.fill(m_ledBuffer, start, end, on);
         }
 
         m_led.setData(m_ledBuffer);
     }
 
-    private void bar() {
-        // set the hue to the selected color
-        int hue = 0;
-        if (this.percentage > 33) {
-            hue = 11;
+    private void advanceWave() {
+        if (System.currentTimeMillis() - 25 > this.lastTime) {
+            this.iteration++;
+            this.lastTime = System.currentTimeMillis();
         }
-
-        if (this.percentage > 66) {
-            hue = 20;
+        if (this.iteration == (this.m_ledBuffer.getLength() / 2) + 1) {
+            this.iteration = 0;
+            this.entering = !this.entering;
         }
+    }
 
-        if (this.percentage >= 99) {
-            hue = 45;
-        }
+    private void bar() {
+        // set the hue to the selected color
+        int hue = barHue(this.percentage);
 
         int half = this.m_ledBuffer.getLength() / 2;
         double percentage = this.percentage / 100.0;
@@ -190,34 +250,116 @@ public class LEDStrip {
 
         double size = percentage * half;
         long round = Math.round(size);
-        for (int i = 0; i < this.m_ledBuffer.getLength() - start; i++) {
-            m_ledBuffer.setHSV(i + start, 0, 0, 0);
-        }
+        LEDFill.bar(
+                m_ledBuffer,
+                start,
+                m_ledBuffer.getLength(),
+                (int) (half - round) + start,
+                (int) (half + round) + start,
+                HsvTable.rgb(hue, 255),
+                0);
 
-        for (long i = half - round; i < half + round; i++) {
-            m_ledBuffer.setHSV((int) i + start, hue, 255, 255);
+        m_led.setData(m_ledBuffer);
+    }
+
+    /** @return The HSV hue drawn for one of {@link LEDS.Colors} */
+    static int hueOf(int color) {
+        switch (color) {
+            case Colors.RED:
+                return 0;
+            case Colors.PINK:
+                return 175;
+            case Colors.PURPLE:
+                return 150;
+            case Colors.BLUE:
+                return 120;
+            case Colors.CYAN:
+                return 100;
+            case Colors.GREEN:
+                return 45;
+            case Colors.YELLOW:
+                return 20;
+            case Colors.ORANGE:
+                return 11;
+            default:
+                return 0;
         }
+    }
 
-        m_led.setData(m_ledBuffer);
+    /** @return The HSV hue of the bar at a percentage: red, then orange, yellow and green */
+    static int barHue(int percentage) {
+        if (percentage >= 99) {
+            return 45;
+        }
+        if (percentage > 66) {
+            return 20;
+        }
+        if (percentage > 33) {
+            return 11;
+        }
+        return 0;
     }
 
     public void setColor(int newcolor) {
-        this.color = newcolor;
+        if (this.posted != null) {
+            this.post(POSTED_COLOR, newcolor);
+        } else {
+            this.color = newcolor;
+        }
     }
     public int getColor(){
-        return this.color;
+        return this.posted != null ? (int) this.posted.get(POSTED_COLOR) : this.color;
     }
 
     public void setPercentage(int percentage) {
-        this.percentage = percentage;
+        if (this.posted != null) {
+            this.post(POSTED_PERCENTAGE, percentage);
+        } else {
+            this.percentage = percentage;
+        }
     }
 
     public void setMode(int newmode) {
-        this.mode = newmode;
+        if (this.posted != null) {
+            this.post(POSTED_MODE, newmode);
+        } else {
+            this.mode = newmode;
+        }
     }
 
     public int getMode() {
-        return this.mode;
+        return this.posted != null ? (int) this.posted.get(POSTED_MODE) : this.mode;
+    }
+
+    /**
+     * Sets the mode, color and percentage together. With the render thread running, they are
+     * posted as one write, so no frame is drawn with only some of them changed.
+     *
+     * @param newmode One of the modes
+     * @param newcolor One of {@link LEDS.Colors}
+     * @param percentage The percentage shown in {@link #MODE_BAR}
+     */
+    public void set(int newmode, int newcolor, int percentage) {
+        if (this.posted != null) {
+            this.posted.beginWrite();
+            this.posted.set(POSTED_MODE, newmode);
+            this.posted.set(POSTED_COLOR, newcolor);
+            this.posted.set(POSTED_PERCENTAGE, percentage);
+            this.posted.endWrite();
+        } else {
+            this.mode = newmode;
+            this.color = newcolor;
+            this.percentage = percentage;
+        }
+    }
+
+    private void post(int index, int value) {
+        if (this.posted.get(index) == value) {
+            return;
+        }
+        this.posted.beginWrite();
+        this.posted.set(index, value);
+        this.posted.endWrite();
     }
 
     public class LEDS {
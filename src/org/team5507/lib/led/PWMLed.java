@@ -10,6 +10,8 @@ public class PWMLed {
     private AddressableLEDBuffer buffer;
 
     private int m_rainbowFirstPixelHue = 0;
+    // The solid color last pushed as packed RGB, or -1 if the strip is not a known solid color
+    private int pushedRGB = -1;
 
     public PWMLed(int pwmPort, int ledLength) {
         this.led = new AddressableLED(pwmPort);
@@ -20,30 +22,30 @@ public class PWMLed {
     }
 
     public void setColor(Color color) {
-        for (int i = 0; i < buffer.getLength(); i++) {
-            buffer.setLED(i, color);
-        }
-
-        led.setData(buffer);
+        setRGB((int) (color.red * 255), (int) (color.green * 255), (int) (color.blue * 255));
     }
 
+    /**
+     * Sets the whole strip to one color. Does nothing if the strip already shows that color, so
+     * it is cheap to call every loop.
+     */
     public void setRGB(int r, int g, int b) {
-        for (int i = 0; i < buffer.getLength(); i++) {
-            buffer.setRGB(i, r, g, b);
+        int rgb = (r & 0xFF) << 16 | (g & 0xFF) << 8 | (b & 0xFF);
+        if (rgb == pushedRGB) {
+            return;
         }
+        LEDFill.fill(buffer, 0, buffer.getLength(), rgb);
 
         led.setData(buffer);
+        pushedRGB = rgb;
     }
 
     public void rainbow() {
-        // For every pixel
-        for (var i = 0; i < buffer.getLength(); i++) {
-            // Calculate the hue - hue is easier for rainbows because the color
-            // shape is a circle so only one value needs to precess
-            int hue = (m_rainbowFirstPixelHue + (i * 180 / buffer.getLength())) % 180;
-            // Set the value
-            buffer.setHSV(i, hue, 255, 128);
-        }
+        pushedRGB = -1;
+        // Hue is easier for rainbows because the color shape is a circle so only one value needs
+        // to precess
+        int length = buffer.getLength();
+        LEDFill.gradient(buffer, 0, length, m_rainbowFirstPixelHue, length, 128);
         // Increase by to make the rainbow "move"
         m_rainbowFirstPixelHue += 3;
         // Check bounds
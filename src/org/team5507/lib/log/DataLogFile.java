@@ -0,0 +1,522 @@
+package org.team5507.lib.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@code .wpilog} files written by {@link org.team5507.lib.util.LoggingManager} for
+ * offline analysis. The file is memory mapped rather than loaded, and a single pass over it
+ * builds an index of every entry and the offsets and timestamps of its records. Values are then
+ * read straight from the mapping through a {@link Cursor}, only for the entries and time range
+ * asked for, so a day of practice logs can be scanned in seconds without holding it in memory.
+ *
+ * <pre>
+ * DataLogFile log = DataLogFile.open(Paths.get("FRC_20221015_183000.wpilog"));
+ * DataLogFile.Cursor voltage = log.getEntry("/Robot/BatteryVoltage").cursor(start, end);
+ * while (voltage.next()) {
+ *     System.out.println(voltage.getTimestamp() + " " + voltage.getDouble());
+ * }
+ * </pre>
+ *
+ * <p>This follows version 1.0 of the WPILib data log format. Files must be under 2 GB. A record
+ * cut off by a crash ends the index without an error; any other damage, such as a length that
+ * runs outside its record, makes {@link #open} fail. Time range lookups assume the records of an
+ * entry are in time order, which is how DataLog writes them.
+ */
+public class DataLogFile {
+    private static final byte[] MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTROL_START = 0;
+    private static final int CONTROL_FINISH = 1;
+    private static final int CONTROL_SET_METADATA = 2;
+    // IDs are normally small and sequential; larger ones go in a map so a corrupt or unusual ID
+    // cannot make the lookup table huge
+    private static final int MAX_TABLE_ID = 1 << 16;
+
+    /** One entry of the log, e.g. a single signal, and the index of its records. */
+    public class Entry {
+        private final int id;
+        private final String name;
+        private final String type;
+        private String metadata;
+        private final long startTimestamp;
+        private int[] offsets = new int[16];
+        private long[] timestamps = new long[16];
+        private int count = 0;
+
+        private Entry(int id, String name, String type, String metadata, long startTimestamp) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.metadata = metadata;
+            this.startTimestamp = startTimestamp;
+        }
+
+        private void add(int offset, long timestamp) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * count);
+                timestamps = Arrays.copyOf(timestamps, 2 * count);
+            }
+            offsets[count] = offset;
+            timestamps[count] = timestamp;
+            count++;
+        }
+
+        /**
+         * Returns a cursor over every record of the entry.
+         *
+         * @return The cursor, positioned before the first record
+         */
+        public Cursor cursor() {
+            return new Cursor(this, 0, count);
+        }
+
+        /**
+         * Returns a cursor over the records in a time range.
+         *
+         * @param startMicros The earliest timestamp, inclusive
+         * @param endMicros The latest timestamp, exclusive
+         * @return The cursor, positioned before the first record in the range
+         */
+        public Cursor cursor(long startMicros, long endMicros) {
+            return new Cursor(this, indexAt(startMicros), indexAt(endMicros));
+        }
+
+        /**
+         * Finds the first record at or after a time.
+         *
+         * @param micros The timestamp
+         * @return The index of the record, or the record count if there is none
+         */
+        public int indexAt(long micros) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < micros) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** @return The ID the entry had in the file; IDs may be reused by later entries */
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** @return The data type, e.g. "double", "boolean[]" or "string" */
+        public String getType() {
+            return type;
+        }
+
+        public String getMetadata() {
+            return metadata;
+        }
+
+        /** @return The time the entry was started, in microseconds */
+        public long getStartTimestamp() {
+            return startTimestamp;
+        }
+
+        public int getRecordCount() {
+            return count;
+        }
+
+        public long getTimestamp(int index) {
+            return timestamps[index];
+        }
+
+        /**
+         * Reads one record of a numeric or boolean entry as a double, without a cursor.
+         *
+         * @param index The index of the record
+         * @return The value
+         */
+        public double getNumber(int index) {
+            int offset = offsets[index];
+            int header = buffer.get(offset) & 0xFF;
+            int idLength = (header & 0x3) + 1;
+            int sizeLength = ((header >> 2) & 0x3) + 1;
+            int timestampLength = ((header >> 4) & 0x7) + 1;
+            return number(this, offset + 1 + idLength + sizeLength + timestampLength);
+        }
+    }
+
+    /**
+     * Steps through records of one entry and decodes the current record's payload. Reading a
+     * number or filling an array does not allocate.
+     */
+    public class Cursor {
+        private final Entry entry;
+        private final int end;
+        private int index;
+        private int payload;
+        private int size;
+
+        private Cursor(Entry entry, int start, int end) {
+            this.entry = entry;
+            this.index = start - 1;
+            this.end = end;
+        }
+
+        /** @return Whether there is another record; it becomes the current record */
+        public boolean next() {
+            if (index + 1 >= end) {
+                index = end;
+                return false;
+            }
+            index++;
+            int offset = entry.offsets[index];
+            int header = buffer.get(offset) & 0xFF;
+            int idLength = (header & 0x3) + 1;
+            int sizeLength = ((header >> 2) & 0x3) + 1;
+            int timestampLength = ((header >> 4) & 0x7) + 1;
+            size = (int) readLittleEndian(offset + 1 + idLength, sizeLength);
+            payload = offset + 1 + idLength + sizeLength + timestampLength;
+            return true;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public long getTimestamp() {
+            return entry.timestamps[index];
+        }
+
+        public int getPayloadSize() {
+            return size;
+        }
+
+        public boolean getBoolean() {
+            return buffer.get(payload) != 0;
+        }
+
+        public long getLong() {
+            return buffer.getLong(payload);
+        }
+
+        public float getFloat() {
+            return buffer.getFloat(payload);
+        }
+
+        public double getDouble() {
+            return buffer.getDouble(payload);
+        }
+
+        /**
+         * Reads a number of any numeric type or a boolean, as a double.
+         *
+         * @return The value
+         */
+        public double getNumber() {
+            return number(entry, payload);
+        }
+
+        public String getString() {
+            return string(payload, size);
+        }
+
+        /**
+         * Copies a double[] value into an array.
+         *
+         * @param out The array to fill
+         * @return The number of elements in the record, which may be more than were copied
+         */
+        public int getDoubleArray(double[] out) {
+            int length = size / Double.BYTES;
+            for (int i = 0; i < Math.min(length, out.length); i++) {
+                out[i] = buffer.getDouble(payload + i * Double.BYTES);
+            }
+            return length;
+        }
+
+        /**
+         * Copies an int64[] value into an array.
+         *
+         * @param out The array to fill
+         * @return The number of elements in the record, which may be more than were copied
+         */
+        public int getLongArray(long[] out) {
+            int length = size / Long.BYTES;
+            for (int i = 0; i < Math.min(length, out.length); i++) {
+                out[i] = buffer.getLong(payload + i * Long.BYTES);
+            }
+            return length;
+        }
+
+        /**
+         * Copies a boolean[] value into an array.
+         *
+         * @param out The array to fill
+         * @return The number of elements in the record, which may be more than were copied
+         */
+        public int getBooleanArray(boolean[] out) {
+            for (int i = 0; i < Math.min(size, out.length); i++) {
+                out[i] = buffer.get(payload + i) != 0;
+            }
+            return size;
+        }
+
+        public String[] getStringArray() {
+            String[] strings = new String[buffer.getInt(payload)];
+            int position = payload + 4;
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt(position);
+                strings[i] = string(position + 4, length);
+                position += 4 + length;
+            }
+            return strings;
+        }
+
+        /**
+         * Copies the raw payload, e.g. of a "raw" or "msgpack" entry.
+         *
+         * @param out The array to fill
+         * @return The payload size, which may be more than was copied
+         */
+        public int getRaw(byte[] out) {
+            for (int i = 0; i < Math.min(size, out.length); i++) {
+                out[i] = buffer.get(payload + i);
+            }
+            return size;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final String extraHeader;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Entry> entriesByName = new LinkedHashMap<>();
+    private Entry[] active = new Entry[64];
+    private final Map<Integer, Entry> activeLarge = new HashMap<>();
+    private final String source;
+    private long recordCount = 0;
+
+    private DataLogFile(ByteBuffer buffer, String source) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.source = source;
+        if (buffer.limit() < 12) {
+            throw new IOException(source + " is not a WPILib data log");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException(source + " is not a WPILib data log");
+            }
+        }
+        int version = buffer.getShort(6) & 0xFFFF;
+        if (version >> 8 != 1) {
+            throw new IOException(
+                    source + " has unsupported version " + (version >> 8) + "." + (version & 0xFF));
+        }
+        int extraLength = buffer.getInt(8);
+        if (extraLength < 0 || extraLength > buffer.limit() - 12) {
+            throw new IOException(source + " is corrupt: bad header length " + extraLength);
+        }
+        extraHeader = string(12, extraLength);
+        index(12 + extraLength);
+    }
+
+    /**
+     * Maps a log file and indexes it.
+     *
+     * @param path The log file
+     * @return The indexed log
+     * @throws IOException If the file cannot be read, is not a data log or is corrupt
+     */
+    public static DataLogFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than 2 GB");
+            }
+            return new DataLogFile(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    path.toString());
+        }
+    }
+
+    private void index(int position) throws IOException {
+        int limit = buffer.limit();
+        while (position < limit) {
+            int header = buffer.get(position) & 0xFF;
+            int idLength = (header & 0x3) + 1;
+            int sizeLength = ((header >> 2) & 0x3) + 1;
+            int timestampLength = ((header >> 4) & 0x7) + 1;
+            int headerLength = 1 + idLength + sizeLength + timestampLength;
+            if (position + headerLength > limit) {
+                break;
+            }
+            int id = (int) readLittleEndian(position + 1, idLength);
+            if (id < 0) {
+                throw corrupt(position, "entry ID " + (id & 0xFFFF_FFFFL));
+            }
+            long size = readLittleEndian(position + 1 + idLength, sizeLength);
+            long timestamp =
+                    readLittleEndian(position + 1 + idLength + sizeLength, timestampLength);
+            int payload = position + headerLength;
+            if (payload + size > limit) {
+                break;
+            }
+
+            if (id == 0) {
+                control(payload, (int) size, timestamp);
+            } else {
+                Entry entry = getActive(id);
+                if (entry != null) {
+                    entry.add(position, timestamp);
+                }
+            }
+            recordCount++;
+            position = payload + (int) size;
+        }
+    }
+
+    private void control(int payload, int size, long timestamp) throws IOException {
+        if (size < 5) {
+            throw corrupt(payload, "control record of " + size + " bytes");
+        }
+        int end = payload + size;
+        int type = buffer.get(payload);
+        int id = buffer.getInt(payload + 1);
+        if (id < 0) {
+            throw corrupt(payload, "entry ID " + (id & 0xFFFF_FFFFL));
+        }
+        if (type == CONTROL_START) {
+            int position = payload + 5;
+            int nameLength = stringLength(position, end);
+            String name = string(position + 4, nameLength);
+            position += 4 + nameLength;
+            int typeLength = stringLength(position, end);
+            String dataType = string(position + 4, typeLength);
+            position += 4 + typeLength;
+            int metadataLength = stringLength(position, end);
+            String metadata = string(position + 4, metadataLength);
+
+            Entry entry = new Entry(id, name, dataType, metadata, timestamp);
+            entries.add(entry);
+            entriesByName.put(name, entry);
+            setActive(id, entry);
+        } else if (type == CONTROL_FINISH) {
+            setActive(id, null);
+        } else if (type == CONTROL_SET_METADATA) {
+            Entry entry = getActive(id);
+            if (entry != null) {
+                entry.metadata = string(payload + 9, stringLength(payload + 5, end));
+            }
+        }
+    }
+
+    /** Reads the length of a string in a control record and checks it fits in the record. */
+    private int stringLength(int position, int end) throws IOException {
+        if (position + 4 > end) {
+            throw corrupt(position, "control record ends inside a string length");
+        }
+        int length = buffer.getInt(position);
+        if (length < 0 || length > end - position - 4) {
+            throw corrupt(position, "string length " + length + " outside its record");
+        }
+        return length;
+    }
+
+    private IOException corrupt(int position, String problem) {
+        return new IOException(source + " is corrupt at byte " + position + ": " + problem);
+    }
+
+    private Entry getActive(int id) {
+        if (id < MAX_TABLE_ID) {
+            return id < active.length ? active[id] : null;
+        }
+        return activeLarge.get(id);
+    }
+
+    private void setActive(int id, Entry entry) {
+        if (id >= MAX_TABLE_ID) {
+            if (entry == null) {
+                activeLarge.remove(id);
+            } else {
+                activeLarge.put(id, entry);
+            }
+            return;
+        }
+        if (id >= active.length) {
+            if (entry == null) {
+                return;
+            }
+            active = Arrays.copyOf(active, Math.max(2 * active.length, id + 1));
+        }
+        active[id] = entry;
+    }
+
+    private double number(Entry entry, int payload) {
+        switch (entry.type) {
+            case "double":
+                return buffer.getDouble(payload);
+            case "float":
+                return buffer.getFloat(payload);
+            case "int64":
+                return buffer.getLong(payload);
+            case "boolean":
+                return buffer.get(payload) != 0 ? 1 : 0;
+            default:
+                throw new IllegalStateException(entry.name + " is not numeric: " + entry.type);
+        }
+    }
+
+    private long readLittleEndian(int position, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) (buffer.get(position + i) & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    private String string(int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the entry with a name. If several entries had the name, e.g. because it was
+     * finished and restarted, the last one is returned.
+     *
+     * @param name The entry name
+     * @return The entry, or null if there is none
+     */
+    public Entry getEntry(String name) {
+        return entriesByName.get(name);
+    }
+
+    /** @return Every entry in the order they were started */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public String getExtraHeader() {
+        return extraHeader;
+    }
+
+    /** @return The number of records in the file, including control records */
+    public long getRecordCount() {
+        return recordCount;
+    }
+}
@@ -0,0 +1,142 @@
+package org.team5507.lib.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Offline converter from {@link FlightRecordFile}s to CSV, with one row per sample and one column
+ * per motor and channel. Copy the recordings off the robot and run:
+ *
+ * <pre>
+ * java -cp lib5507.jar org.team5507.lib.log.FlightRecordConverter FILE...
+ * </pre>
+ *
+ * <p>Each output is written next to its input with a {@code .csv} extension.
+ */
+public final class FlightRecordConverter {
+    private FlightRecordConverter() {}
+
+    public static void main(String[] args) {
+        boolean failed = false;
+        for (String arg : args) {
+            try {
+                Path output = convert(Paths.get(arg));
+                System.out.println("Wrote " + output);
+            } catch (IOException e) {
+                System.err.println("Failed to convert " + arg + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed || args.length == 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a single recording.
+     *
+     * @param input The recording to read
+     * @return The path of the written CSV file
+     * @throws IOException If the input is not a valid recording or the output cannot be written
+     */
+    public static Path convert(Path input) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < FlightRecordFile.HEADER_BYTES
+                || buffer.getInt() != FlightRecordFile.MAGIC) {
+            throw new IOException(input + " is not a flight recording");
+        }
+        short version = buffer.getShort();
+        if (version != FlightRecordFile.VERSION) {
+            throw new IOException(input + " has unsupported version " + version);
+        }
+        int channels = buffer.getShort();
+        int motors = buffer.getInt();
+        int rows = buffer.getInt();
+        buffer.getLong();
+        if (channels < 0 || motors < 0 || rows < 0) {
+            throw new IOException(
+                    input
+                            + " is corrupt: bad counts "
+                            + motors
+                            + " motors, "
+                            + channels
+                            + " channels, "
+                            + rows
+                            + " rows");
+        }
+
+        // Each name takes at least its 2-byte length, which bounds the array by the file size
+        if (motors > buffer.remaining() / Short.BYTES) {
+            throw new IOException(input + " is truncated");
+        }
+        String[] names = new String[motors];
+        for (int i = 0; i < motors; i++) {
+            if (buffer.remaining() < Short.BYTES) {
+                throw new IOException(input + " is truncated");
+            }
+            int length = buffer.getShort() & 0xFFFF;
+            if (length > buffer.remaining()) {
+                throw new IOException(input + " is truncated");
+            }
+            byte[] name = new byte[length];
+            buffer.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        int timestamps = buffer.position();
+        long columns = timestamps + (long) rows * Long.BYTES;
+        long columnCount = (long) motors * channels;
+        // Checked in steps so the product cannot overflow a long either
+        long columnBytes = buffer.limit() - columns;
+        if (columnBytes < 0
+                || (rows > 0 && columnCount > columnBytes / ((long) rows * Float.BYTES))) {
+            throw new IOException(input + " is truncated");
+        }
+
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        Path output = input.resolveSibling(name + ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("timestamp_us");
+            for (int m = 0; m < motors; m++) {
+                for (int c = 0; c < channels; c++) {
+                    String channel =
+                            c < FlightRecordFile.CHANNELS.length
+                                    ? FlightRecordFile.CHANNELS[c]
+                                    : "channel" + c;
+                    writer.write("," + names[m] + "." + channel);
+                }
+            }
+            writer.newLine();
+
+            StringBuilder line = new StringBuilder();
+            for (int row = 0; row < rows; row++) {
+                line.setLength(0);
+                line.append(buffer.getLong((int) (timestamps + (long) row * Long.BYTES)));
+                for (long c = 0; c < columnCount; c++) {
+                    line.append(',')
+                            .append(
+                                    buffer.getFloat(
+                                            (int) (columns + (c * rows + row) * Float.BYTES)));
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+        return output;
+    }
+}
@@ -0,0 +1,130 @@
+package org.team5507.lib.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The binary format {@link FlightRecorder} dumps to. All values are little endian.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, the ASCII bytes "T5FR"
+ *      4     2  format version, currently 1
+ *      6     2  channels per motor, currently 4
+ *      8     4  number of motors
+ *     12     4  number of rows
+ *     16     8  FPGA time of the dump in microseconds (long)
+ *     24   ...  motor names, each a 2 byte length and that many bytes of UTF-8
+ *          ...  timestamp column: one FPGA time in microseconds per row (long)
+ *          ...  one column of floats per motor and channel, motor by motor
+ * </pre>
+ *
+ * <p>The channels of each motor are, in order, stator current in amps, motor output voltage in
+ * volts, and velocity and position in sensor units. Rows are oldest first. Use {@link
+ * FlightRecordConverter} to turn a file into CSV.
+ */
+public final class FlightRecordFile {
+    /** The file extension used for flight recordings. */
+    public static final String EXTENSION = ".rec";
+
+    public static final int MAGIC = 0x5246_3554; // "T5FR" read as a little endian int
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 24;
+
+    /** The names of the recorded channels of each motor, in file order. */
+    public static final String[] CHANNELS = {"current", "voltage", "velocity", "position"};
+
+    private FlightRecordFile() {}
+
+    /**
+     * Writes the contents of a recorder's ring buffer, oldest row first.
+     *
+     * @param path The file to create or replace
+     * @param columns The ring buffer: a timestamp column of capacity longs, then one column of
+     *     capacity floats per motor and channel
+     * @param capacity The number of rows the ring holds
+     * @param head The row the next sample would have been written to
+     * @param rows The number of valid rows
+     * @param names The motor names
+     * @param dumpMicros The FPGA time of the dump
+     * @throws IOException If the file cannot be written
+     */
+    static void write(
+            Path path,
+            ByteBuffer columns,
+            int capacity,
+            int head,
+            int rows,
+            List<String> names,
+            long dumpMicros)
+            throws IOException {
+        int nameBytes = 0;
+        byte[][] encoded = new byte[names.size()][];
+        for (int i = 0; i < names.size(); i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            nameBytes += 2 + encoded[i].length;
+        }
+        ByteBuffer header =
+                ByteBuffer.allocate(HEADER_BYTES + nameBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) CHANNELS.length)
+                .putInt(names.size())
+                .putInt(rows)
+                .putLong(dumpMicros);
+        for (byte[] name : encoded) {
+            header.putShort((short) name.length).put(name);
+        }
+        header.flip();
+
+        // Until the ring has wrapped the rows are [0, rows); after, the oldest row is at head
+        int first = rows < capacity ? 0 : head;
+        try (FileChannel channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeColumn(channel, columns, 0, Long.BYTES, capacity, first, rows);
+            int columnCount = names.size() * CHANNELS.length;
+            int offset = capacity * Long.BYTES;
+            for (int c = 0; c < columnCount; c++) {
+                writeColumn(channel, columns, offset, Float.BYTES, capacity, first, rows);
+                offset += capacity * Float.BYTES;
+            }
+        }
+    }
+
+    private static void writeColumn(
+            FileChannel channel,
+            ByteBuffer columns,
+            int offset,
+            int bytes,
+            int capacity,
+            int first,
+            int rows)
+            throws IOException {
+        int tail = Math.min(rows, capacity - first);
+        writeFully(channel, slice(columns, offset + first * bytes, tail * bytes));
+        writeFully(channel, slice(columns, offset, (rows - tail) * bytes));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(position + length).position(position);
+        return slice;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.team5507.lib.log;
+
+import com.ctre.phoenix.motorcontrol.Faults;
+import edu.wpi.first.wpilibj.RobotController;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.team5507.lib.util.LoggingManager;
+import org.team5507.lib.wrappers.MotorController5507;
+
+/**
+ * Keeps the last few seconds of every registered motor's current, voltage, velocity and position
+ * in memory at full rate, and writes them to a file when something goes wrong. Samples go into a
+ * columnar ring buffer in a direct {@link ByteBuffer}, so recording a sample is a handful of
+ * absolute puts with no allocation and nothing to collect.
+ *
+ * <p>A dump copies the ring once, on the recording thread, and then writes the copy to a {@link
+ * FlightRecordFile} on a low priority background thread, so recording carries on undisturbed.
+ * Dumps can be requested from anywhere, e.g. from a {@link
+ * org.team5507.lib.wrappers.StallDetector} callback, and are also taken on brownouts and motor
+ * faults if enabled. Requests made before the next sample are merged into one dump whose reason
+ * lists them all. A dump requested while the previous one is still being written is dropped.
+ *
+ * <pre>
+ * FlightRecorder recorder = new FlightRecorder(30, 50)
+ *         .add("Shooter", shooter)
+ *         .add("Intake", intake)
+ *         .dumpOnBrownout(true)
+ *         .dumpOnFault(true);
+ * detector.onStall(() -&gt; recorder.dump("intake-stall"));
+ *
+ * // robotPeriodic(), or a faster ControlLoop
+ * recorder.record();
+ * </pre>
+ */
+public class FlightRecorder {
+    private static final String defaultLoc = "/home/lvuser/recordings/";
+
+    private final List<String> names = new ArrayList<>();
+    private final List<MotorController5507> motors = new ArrayList<>();
+    private final int capacity;
+    private ByteBuffer ring;
+    private ByteBuffer snapshot;
+    private int head = 0;
+    private int rows = 0;
+
+    private File directory = new File(defaultLoc);
+    private boolean dumpOnBrownout = false;
+    private boolean brownedOut = false;
+    private boolean dumpOnFault = false;
+    private final Faults faults = new Faults();
+    private int[] faultBits;
+    private final AtomicReference<String> requestedDump = new AtomicReference<>();
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private ExecutorService writer;
+
+    /**
+     * Creates a recorder.
+     *
+     * @param seconds How much history to keep
+     * @param rate How often {@link #record()} is called, in Hz
+     */
+    public FlightRecorder(double seconds, double rate) {
+        this.capacity = (int) Math.ceil(seconds * rate);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("seconds and rate must be positive");
+        }
+    }
+
+    /**
+     * Adds a motor to record. All motors must be added before the first sample is recorded.
+     *
+     * @param name The name of the motor in the recording
+     * @param motor The motor
+     * @return This recorder, for chaining
+     */
+    public FlightRecorder add(String name, MotorController5507 motor) {
+        if (ring != null) {
+            throw new IllegalStateException("Motors must be added before recording starts");
+        }
+        names.add(name);
+        motors.add(motor);
+        return this;
+    }
+
+    /**
+     * Sets whether a brownout triggers a dump. Checked once per recorded sample.
+     *
+     * @param enabled Whether to dump on brownouts
+     * @return This recorder, for chaining
+     */
+    public FlightRecorder dumpOnBrownout(boolean enabled) {
+        this.dumpOnBrownout = enabled;
+        return this;
+    }
+
+    /**
+     * Sets whether a motor reporting a new fault, e.g. under voltage or a sensor out of phase,
+     * triggers a dump. Checked once per recorded sample.
+     *
+     * @param enabled Whether to dump on motor faults
+     * @return This recorder, for chaining
+     */
+    public FlightRecorder dumpOnFault(boolean enabled) {
+        this.dumpOnFault = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the directory dumps are written to. Defaults to {@code /home/lvuser/recordings/}.
+     *
+     * @param directory The directory, created if needed
+     * @return This recorder, for chaining
+     */
+    public FlightRecorder directory(File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /** Records one sample of every motor, stamped with the FPGA time. */
+    public void record() {
+        record(RobotController.getFPGATime());
+    }
+
+    /**
+     * Records one sample of every motor.
+     *
+     * @param timestampMicros The time of the sample in microseconds
+     */
+    public void record(long timestampMicros) {
+        if (ring == null) {
+            allocate();
+        }
+        ring.putLong(head * Long.BYTES, timestampMicros);
+        int position = capacity * Long.BYTES + head * Float.BYTES;
+        int columnBytes = capacity * Float.BYTES;
+        for (int i = 0; i < motors.size(); i++) {
+            MotorController5507 motor = motors.get(i);
+            ring.putFloat(position, (float) motor.getStatorCurrent());
+            position += columnBytes;
+            ring.putFloat(position, (float) motor.getMotorOutputVoltage());
+            position += columnBytes;
+            ring.putFloat(position, (float) motor.getSelectedSensorVelocity());
+            position += columnBytes;
+            ring.putFloat(position, (float) motor.getSelectedSensorPosition());
+            position += columnBytes;
+        }
+        head = head + 1 == capacity ? 0 : head + 1;
+        if (rows < capacity) {
+            rows++;
+        }
+
+        if (dumpOnBrownout) {
+            boolean browned = RobotController.isBrownedOut();
+            if (browned && !brownedOut) {
+                dump("brownout");
+            }
+            brownedOut = browned;
+        }
+        if (dumpOnFault) {
+            checkFaults();
+        }
+        // Reading first keeps the common case to a plain volatile read
+        if (requestedDump.get() != null) {
+            startDump(requestedDump.getAndSet(null), timestampMicros);
+        }
+    }
+
+    /**
+     * Requests a dump. It is taken on the recording thread at the next {@link #record()}, so it
+     * is safe to call from any thread.
+     *
+     * @param reason A short description used in the file name, e.g. "brownout". Characters
+     *     other than letters, digits, "-" and "_" are replaced with "_".
+     */
+    public void dump(String reason) {
+        requestedDump.accumulateAndGet(
+                reason, (pending, added) -> pending == null ? added : pending + "+" + added);
+    }
+
+    /** @return Whether a dump is currently being written */
+    public boolean isWriting() {
+        return writing.get();
+    }
+
+    /** Requests a dump for each motor with a fault it did not have at the last check. */
+    private void checkFaults() {
+        if (faultBits == null) {
+            faultBits = new int[motors.size()];
+        }
+        for (int i = 0; i < motors.size(); i++) {
+            motors.get(i).getFaults(faults);
+            int bits = faults.toBitfield();
+            if ((bits & ~faultBits[i]) != 0) {
+                dump("fault-" + names.get(i));
+            }
+            faultBits[i] = bits;
+        }
+    }
+
+    private void allocate() {
+        int bytes = capacity * (Long.BYTES + motors.size() * FlightRecordFile.CHANNELS.length * 4);
+        ring = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        snapshot = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void startDump(String reason, long timestampMicros) {
+        if (!writing.compareAndSet(false, true)) {
+            LoggingManager.logMessage("FlightRecorder: dropped dump '" + reason + "', busy");
+            return;
+        }
+        snapshot.clear();
+        snapshot.put(ring.duplicate().clear());
+        int snapshotHead = head;
+        int snapshotRows = rows;
+        File target = directory;
+        long wallMillis = System.currentTimeMillis();
+
+        if (writer == null) {
+            writer =
+                    Executors.newSingleThreadExecutor(
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "FlightRecorder");
+                                thread.setDaemon(true);
+                                thread.setPriority(Thread.MIN_PRIORITY);
+                                return thread;
+                            });
+        }
+        writer.execute(
+                () -> {
+                    try {
+                        target.mkdirs();
+                        File file = newFile(target, wallMillis, reason);
+                        FlightRecordFile.write(
+                                file.toPath(),
+                                snapshot,
+                                capacity,
+                                snapshotHead,
+                                snapshotRows,
+                                names,
+                                timestampMicros);
+                        LoggingManager.logMessage("FlightRecorder: wrote " + file);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        writing.set(false);
+                    }
+                });
+    }
+
+    /**
+     * Names a dump by wall clock time and reason. The roboRIO clock may not be set, so a name
+     * already taken, e.g. by a previous boot, gets a numeric suffix rather than being replaced.
+     */
+    private static File newFile(File directory, long wallMillis, String reason) {
+        String base =
+                "flight-"
+                        + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(wallMillis))
+                        + "-"
+                        + reason.replaceAll("[^A-Za-z0-9_-]", "_");
+        File file = new File(directory, base + FlightRecordFile.EXTENSION);
+        for (int i = 2; file.exists(); i++) {
+            file = new File(directory, base + "-" + i + FlightRecordFile.EXTENSION);
+        }
+        return file;
+    }
+}
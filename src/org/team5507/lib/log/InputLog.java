@@ -0,0 +1,289 @@
+package org.team5507.lib.log;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import org.team5507.lib.util.LoggingManager;
+
+/**
+ * The single place robot code reads its inputs from, so that a match can be replayed. Every
+ * sensor value and driver station input the robot acts on goes through an {@link Input}, and
+ * every decision worth checking is reported through an {@link Output}.
+ *
+ * <p>On the robot, inputs are read live and appended to the {@link DataLog} of {@link
+ * LoggingManager}, together with a marker at the start of each loop cycle. When replaying with
+ * {@link ReplayEngine}, the same code gets the recorded values of each cycle instead, and outputs
+ * are compared against the values recorded for that cycle rather than logged.
+ *
+ * <pre>
+ * // Robot constructor; ReplayEngine.getInputs() when replaying
+ * InputLog inputs = InputLog.live();
+ * Input gyro = inputs.input("/Inputs/Gyro/Yaw");
+ * Output turn = inputs.output("/Outputs/Drive/Turn");
+ *
+ * // robotPeriodic()
+ * inputs.beginCycle();
+ * double yaw = gyro.read(navx::getYaw);
+ * turn.log(controller.calculate(yaw));
+ * </pre>
+ *
+ * <p>Replay is only deterministic if everything the loop depends on is read this way, including
+ * the time, which must come from {@link #getTimestamp()} rather than {@code Timer}. Reading an
+ * input does not allocate; bind method references once, as fields, if the loop is sensitive to
+ * garbage. Not thread safe: use an InputLog from the robot loop only.
+ */
+public class InputLog {
+    /** The entry the start of every loop cycle is recorded to. */
+    public static final String CYCLE_ENTRY = "/Replay/Cycle";
+
+    /** A recorded input. */
+    public class Input {
+        private final String name;
+        private final DoubleLogEntry live;
+        private final DataLogFile.Entry recorded;
+        private int index = -1;
+        private double value = 0;
+
+        private Input(String name) {
+            this.name = name;
+            this.live = log != null ? new DoubleLogEntry(log, name) : null;
+            this.recorded = replay != null ? find(name) : null;
+        }
+
+        /**
+         * Reads the input.
+         *
+         * @param source Reads the live value; not called when replaying
+         * @return The live value, or the recorded value of the current cycle when replaying
+         */
+        public double read(DoubleSupplier source) {
+            return replay == null ? record(source.getAsDouble()) : replayed();
+        }
+
+        /**
+         * Reads the input from a value the caller has already read, for inputs that are not
+         * worth a supplier. The caller should skip reading the hardware when {@link #isReplay()}.
+         *
+         * @param liveValue The live value; ignored when replaying
+         * @return The live value, or the recorded value of the current cycle when replaying
+         */
+        public double read(double liveValue) {
+            return replay == null ? record(liveValue) : replayed();
+        }
+
+        /**
+         * Reads a boolean input, recorded as 0 or 1.
+         *
+         * @param liveValue The live value; ignored when replaying
+         * @return The live value, or the recorded value of the current cycle when replaying
+         */
+        public boolean readBoolean(boolean liveValue) {
+            return read(liveValue ? 1 : 0) != 0;
+        }
+
+        /** @return The value returned by the last read */
+        public double get() {
+            return value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private double record(double liveValue) {
+            value = liveValue;
+            if (live != null) {
+                live.append(liveValue);
+            }
+            return liveValue;
+        }
+
+        private double replayed() {
+            if (recorded != null) {
+                index = lastBefore(recorded, index, cycleEnd);
+                if (index >= 0) {
+                    value = recorded.getNumber(index);
+                }
+            }
+            return value;
+        }
+    }
+
+    /** A value computed by the robot, recorded live and checked against the recording in replay. */
+    public class Output {
+        private final String name;
+        private final DoubleLogEntry live;
+        private final DataLogFile.Entry recorded;
+        private int index = -1;
+
+        private Output(String name) {
+            this.name = name;
+            this.live = log != null ? new DoubleLogEntry(log, name) : null;
+            this.recorded = replay != null ? find(name) : null;
+        }
+
+        /**
+         * Logs the output, or compares it with the value recorded in the same cycle when
+         * replaying. Cycles without a recorded value are not compared.
+         *
+         * @param value The output
+         */
+        public void log(double value) {
+            if (replay == null) {
+                if (live != null) {
+                    live.append(value);
+                }
+                return;
+            }
+            if (recorded == null) {
+                return;
+            }
+            index = lastBefore(recorded, index, cycleEnd);
+            if (index < 0 || recorded.getTimestamp(index) < cycleStart) {
+                return;
+            }
+            double expected = recorded.getNumber(index);
+            if (!(Math.abs(value - expected) <= tolerance)) {
+                if (mismatches == 0) {
+                    firstMismatch =
+                            name + " at " + cycleStart + " us: was " + expected + ", now " + value;
+                }
+                mismatches++;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final DataLog log;
+    private final IntegerLogEntry cycles;
+    private final DataLogFile replay;
+
+    private long cycleStart = 0;
+    private long cycleEnd = Long.MAX_VALUE;
+    private double tolerance = 1e-9;
+    private int mismatches = 0;
+    private String firstMismatch;
+    private final List<String> missing = new ArrayList<>();
+
+    private InputLog(DataLog log, DataLogFile replay) {
+        this.log = log;
+        this.cycles = log != null ? new IntegerLogEntry(log, CYCLE_ENTRY) : null;
+        this.replay = replay;
+    }
+
+    /**
+     * Creates an input log that reads live values and records them to the {@link
+     * LoggingManager}'s log, if it has one.
+     *
+     * @return The input log
+     */
+    public static InputLog live() {
+        return new InputLog(LoggingManager.getLog().orElse(null), null);
+    }
+
+    /**
+     * Creates an input log that plays back a recording. Use {@link ReplayEngine} to step it.
+     *
+     * @param file The recording
+     * @return The input log
+     */
+    static InputLog replay(DataLogFile file) {
+        return new InputLog(null, file);
+    }
+
+    /**
+     * Registers an input. Register inputs once, e.g. in subsystem constructors.
+     *
+     * @param name The name of the entry, e.g. "/Inputs/Gyro/Yaw"
+     * @return The input
+     */
+    public Input input(String name) {
+        return new Input(name);
+    }
+
+    /**
+     * Registers an output. Register outputs once, e.g. in subsystem constructors.
+     *
+     * @param name The name of the entry, e.g. "/Outputs/Drive/Turn"
+     * @return The output
+     */
+    public Output output(String name) {
+        return new Output(name);
+    }
+
+    /**
+     * Sets how far a replayed output may be from the recorded one and still match.
+     *
+     * @param tolerance The largest allowed absolute difference
+     * @return This input log, for chaining
+     */
+    public InputLog tolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /** Marks the start of a loop cycle. Call first thing in robotPeriodic(); ignored in replay. */
+    public void beginCycle() {
+        if (replay != null) {
+            return;
+        }
+        cycleStart = RobotController.getFPGATime();
+        if (cycles != null) {
+            cycles.append(cycleStart, cycleStart);
+        }
+    }
+
+    /** @return The start of the current cycle in microseconds, live or recorded */
+    public long getTimestamp() {
+        return cycleStart;
+    }
+
+    public boolean isReplay() {
+        return replay != null;
+    }
+
+    /** @return The number of replayed outputs that did not match the recording */
+    public int getMismatchCount() {
+        return mismatches;
+    }
+
+    /** @return A description of the first mismatch, or null if there was none */
+    public String getFirstMismatch() {
+        return firstMismatch;
+    }
+
+    /** @return The names of registered inputs and outputs that are not in the recording */
+    public List<String> getMissingEntries() {
+        return Collections.unmodifiableList(missing);
+    }
+
+    void setCycle(long startMicros, long endMicros) {
+        cycleStart = startMicros;
+        cycleEnd = endMicros;
+    }
+
+    private DataLogFile.Entry find(String name) {
+        DataLogFile.Entry entry = replay.getEntry(name);
+        if (entry == null) {
+            missing.add(name);
+            LoggingManager.logMessage("InputLog: " + name + " is not in the recording, reading 0");
+        }
+        return entry;
+    }
+
+    /** Advances a record index to the last record before a time. Cycles only move forward. */
+    private static int lastBefore(DataLogFile.Entry entry, int index, long micros) {
+        while (index + 1 < entry.getRecordCount() && entry.getTimestamp(index + 1) < micros) {
+            index++;
+        }
+        return index;
+    }
+}
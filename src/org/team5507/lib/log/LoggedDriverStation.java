@@ -0,0 +1,135 @@
+package org.team5507.lib.log;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * The driver station state and joysticks, read once per cycle through an {@link InputLog} so they
+ * can be replayed. Call {@link #update()} at the start of robotPeriodic() and read the robot state
+ * and sticks from here instead of from {@link DriverStation} or a {@code Joystick}. Only the axes
+ * a joystick reports are read and recorded, so an unplugged or smaller controller does not fill
+ * the log with zeros or make WPILib warn about missing axes.
+ *
+ * <pre>
+ * LoggedDriverStation ds = new LoggedDriverStation(inputs, 0, 1);
+ *
+ * // robotPeriodic()
+ * inputs.beginCycle();
+ * ds.update();
+ * double forward = -ds.getRawAxis(0, 1);
+ * boolean shoot = ds.getRawButton(1, 1);
+ * </pre>
+ */
+public class LoggedDriverStation {
+    /** The most axes recorded per joystick. */
+    public static final int AXES = 6;
+
+    private final InputLog inputs;
+    private final boolean live;
+    private final InputLog.Input enabled;
+    private final InputLog.Input autonomous;
+    private final InputLog.Input matchTime;
+    private final int[] ports;
+    private final String[] sticks;
+    private final InputLog.Input[] axisCounts;
+    private final InputLog.Input[][] axes;
+    private final InputLog.Input[] buttons;
+
+    /**
+     * Creates the driver station inputs, logged under "/Inputs/DriverStation".
+     *
+     * @param inputs The input log
+     * @param ports The joystick ports to record
+     */
+    public LoggedDriverStation(InputLog inputs, int... ports) {
+        String prefix = "/Inputs/DriverStation/";
+        this.inputs = inputs;
+        this.live = !inputs.isReplay();
+        this.enabled = inputs.input(prefix + "Enabled");
+        this.autonomous = inputs.input(prefix + "Autonomous");
+        this.matchTime = inputs.input(prefix + "MatchTime");
+        this.ports = ports.clone();
+        this.sticks = new String[ports.length];
+        this.axisCounts = new InputLog.Input[ports.length];
+        this.axes = new InputLog.Input[ports.length][AXES];
+        this.buttons = new InputLog.Input[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            sticks[i] = prefix + "Joystick" + ports[i] + "/";
+            axisCounts[i] = inputs.input(sticks[i] + "AxisCount");
+            buttons[i] = inputs.input(sticks[i] + "Buttons");
+        }
+    }
+
+    /** Reads the driver station, or the recording when replaying. Call once per cycle. */
+    public void update() {
+        enabled.readBoolean(live && DriverStation.isEnabled());
+        autonomous.readBoolean(live && DriverStation.isAutonomous());
+        matchTime.read(live ? DriverStation.getMatchTime() : 0);
+        for (int i = 0; i < ports.length; i++) {
+            int count = live ? DriverStation.getStickAxisCount(ports[i]) : 0;
+            count = Math.min((int) axisCounts[i].read(count), AXES);
+            for (int axis = 0; axis < count; axis++) {
+                // Registered the first time the joystick reports the axis
+                if (axes[i][axis] == null) {
+                    axes[i][axis] = inputs.input(sticks[i] + "Axis" + axis);
+                }
+                axes[i][axis].read(live ? DriverStation.getStickAxis(ports[i], axis) : 0);
+            }
+            buttons[i].read(live ? DriverStation.getStickButtons(ports[i]) : 0);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled.get() != 0;
+    }
+
+    public boolean isAutonomous() {
+        return autonomous.get() != 0;
+    }
+
+    /** @return The approximate match time in seconds, as reported by the driver station */
+    public double getMatchTime() {
+        return matchTime.get();
+    }
+
+    /**
+     * Gets an axis of a recorded joystick.
+     *
+     * @param port The joystick port
+     * @param axis The axis, from 0
+     * @return The axis value, from -1 to 1, or 0 if the joystick does not have the axis
+     */
+    public double getRawAxis(int port, int axis) {
+        int i = indexOf(port);
+        return axis < axisCounts[i].get() && axis < AXES ? axes[i][axis].get() : 0;
+    }
+
+    /**
+     * Gets the number of axes a recorded joystick reports.
+     *
+     * @param port The joystick port
+     * @return The number of axes, 0 if nothing is plugged in
+     */
+    public int getAxisCount(int port) {
+        return (int) axisCounts[indexOf(port)].get();
+    }
+
+    /**
+     * Gets a button of a recorded joystick.
+     *
+     * @param port The joystick port
+     * @param button The button, from 1 as on the driver station
+     * @return Whether the button is pressed
+     */
+    public boolean getRawButton(int port, int button) {
+        return ((int) buttons[indexOf(port)].get() & (1 << (button - 1))) != 0;
+    }
+
+    private int indexOf(int port) {
+        for (int i = 0; i < ports.length; i++) {
+            if (ports[i] == port) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Joystick " + port + " is not recorded");
+    }
+}
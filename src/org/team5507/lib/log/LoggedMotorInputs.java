@@ -0,0 +1,82 @@
+package org.team5507.lib.log;
+
+import org.team5507.lib.wrappers.MotorController5507;
+
+/**
+ * The sensor values of one motor, read once per cycle through an {@link InputLog} so they can be
+ * replayed. Subsystems call {@link #update()} at the start of their periodic and then use the
+ * getters here instead of asking the motor. Commands are still sent to the motor directly.
+ *
+ * <pre>
+ * LoggedMotorInputs shooterInputs = new LoggedMotorInputs(inputs, "Shooter", shooter);
+ *
+ * // periodic()
+ * shooterInputs.update();
+ * double error = target - shooterInputs.getSelectedSensorVelocity();
+ * </pre>
+ */
+public class LoggedMotorInputs {
+    private final InputLog.Input position;
+    private final InputLog.Input velocity;
+    private final InputLog.Input statorCurrent;
+    private final InputLog.Input supplyCurrent;
+    private final InputLog.Input outputVoltage;
+    private final InputLog.Input busVoltage;
+    private final MotorController5507 motor;
+    private final boolean live;
+
+    /**
+     * Creates the inputs of a motor, logged under "/Inputs/" + name.
+     *
+     * @param inputs The input log
+     * @param name The name of the motor
+     * @param motor The motor; may be null when replaying
+     */
+    public LoggedMotorInputs(InputLog inputs, String name, MotorController5507 motor) {
+        String prefix = "/Inputs/" + name + "/";
+        this.position = inputs.input(prefix + "Position");
+        this.velocity = inputs.input(prefix + "Velocity");
+        this.statorCurrent = inputs.input(prefix + "StatorCurrent");
+        this.supplyCurrent = inputs.input(prefix + "SupplyCurrent");
+        this.outputVoltage = inputs.input(prefix + "OutputVoltage");
+        this.busVoltage = inputs.input(prefix + "BusVoltage");
+        this.motor = motor;
+        this.live = motor != null && !inputs.isReplay();
+    }
+
+    /** Reads the motor, or the recording when replaying. Call once per cycle. */
+    public void update() {
+        position.read(live ? motor.getSelectedSensorPosition() : 0);
+        velocity.read(live ? motor.getSelectedSensorVelocity() : 0);
+        statorCurrent.read(live ? motor.getStatorCurrent() : 0);
+        supplyCurrent.read(live ? motor.getSupplyCurrent() : 0);
+        outputVoltage.read(live ? motor.getMotorOutputVoltage() : 0);
+        busVoltage.read(live ? motor.getBusVoltage() : 0);
+    }
+
+    /** @return The position in sensor units */
+    public double getSelectedSensorPosition() {
+        return position.get();
+    }
+
+    /** @return The velocity in sensor units per 100 ms */
+    public double getSelectedSensorVelocity() {
+        return velocity.get();
+    }
+
+    public double getStatorCurrent() {
+        return statorCurrent.get();
+    }
+
+    public double getSupplyCurrent() {
+        return supplyCurrent.get();
+    }
+
+    public double getMotorOutputVoltage() {
+        return outputVoltage.get();
+    }
+
+    public double getBusVoltage() {
+        return busVoltage.get();
+    }
+}
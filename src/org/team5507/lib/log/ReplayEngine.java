@@ -0,0 +1,140 @@
+package org.team5507.lib.log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Replays a match recorded through an {@link InputLog}, for regression tests of robot logic off
+ * the robot. The robot code is built with {@link #getInputs()} instead of {@link
+ * InputLog#live()}, and {@link #run} calls its loop once per recorded cycle, back to back, with
+ * the recorded inputs of that cycle. Every {@link InputLog.Output} is checked against what the
+ * robot logged in the same cycle, so a change in behavior shows up as mismatches.
+ *
+ * <pre>
+ * ReplayEngine replay = ReplayEngine.open(Paths.get("FRC_20221015_183000.wpilog"));
+ * Robot robot = new Robot(replay.getInputs());
+ * replay.run(robot::robotPeriodic);
+ * System.out.println(replay.getSummary());
+ * </pre>
+ *
+ * <p>Nothing is slept, so a match replays as fast as the loop runs. Only what the loop reads
+ * through the input log is replayed: WPILib and vendor code that talks to hardware still runs
+ * against the simulator, and its results are not recorded inputs.
+ */
+public class ReplayEngine {
+    private final DataLogFile file;
+    private final InputLog inputs;
+    private final DataLogFile.Entry cycles;
+    private int cyclesRun = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * Creates an engine for a recording.
+     *
+     * @param file The recording, which must contain the cycle markers of an {@link InputLog}
+     */
+    public ReplayEngine(DataLogFile file) {
+        this.file = file;
+        this.inputs = InputLog.replay(file);
+        this.cycles = file.getEntry(InputLog.CYCLE_ENTRY);
+        if (cycles == null || cycles.getRecordCount() == 0) {
+            throw new IllegalArgumentException("The log has no recorded " + InputLog.CYCLE_ENTRY);
+        }
+    }
+
+    /**
+     * Opens a recording and creates an engine for it.
+     *
+     * @param path The {@code .wpilog} file
+     * @return The engine
+     * @throws IOException If the file cannot be read
+     */
+    public static ReplayEngine open(Path path) throws IOException {
+        return new ReplayEngine(DataLogFile.open(path));
+    }
+
+    /** @return The input log to build the robot code with */
+    public InputLog getInputs() {
+        return inputs;
+    }
+
+    public DataLogFile getFile() {
+        return file;
+    }
+
+    /**
+     * Runs every recorded cycle.
+     *
+     * @param loop One cycle of the robot loop, e.g. robotPeriodic()
+     * @return The number of cycles run
+     */
+    public int run(Runnable loop) {
+        return run(loop, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs the recorded cycles that start in a time range. Inputs that were last recorded before
+     * the range still read their recorded values.
+     *
+     * @param loop One cycle of the robot loop, e.g. robotPeriodic()
+     * @param startMicros The earliest cycle start, inclusive
+     * @param endMicros The latest cycle start, exclusive
+     * @return The number of cycles run
+     */
+    public int run(Runnable loop, long startMicros, long endMicros) {
+        int count = cycles.getRecordCount();
+        int first = cycles.indexAt(startMicros);
+        int last = cycles.indexAt(endMicros);
+        long start = System.nanoTime();
+        for (int i = first; i < last; i++) {
+            long end = i + 1 < count ? cycles.getTimestamp(i + 1) : Long.MAX_VALUE;
+            inputs.setCycle(cycles.getTimestamp(i), end);
+            loop.run();
+        }
+        elapsedNanos += System.nanoTime() - start;
+        cyclesRun += last - first;
+        return last - first;
+    }
+
+    public int getCyclesRun() {
+        return cyclesRun;
+    }
+
+    /** @return The wall clock time spent replaying, in seconds */
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public int getMismatchCount() {
+        return inputs.getMismatchCount();
+    }
+
+    /**
+     * @return The names of registered inputs and outputs that are not in the recording; inputs
+     *     read 0 and outputs are not checked
+     */
+    public List<String> getMissingEntries() {
+        return inputs.getMissingEntries();
+    }
+
+    /** @return Whether every output matched the recording */
+    public boolean matches() {
+        return inputs.getMismatchCount() == 0;
+    }
+
+    /** @return A one line summary of the replay, for printing */
+    public String getSummary() {
+        double recorded =
+                (cycles.getTimestamp(cycles.getRecordCount() - 1) - cycles.getTimestamp(0)) / 1e6;
+        String summary =
+                String.format(
+                        "Replayed %d cycles (%.1f s recorded) in %.2f s, %d mismatches",
+                        cyclesRun, recorded, getElapsedSeconds(), getMismatchCount());
+        if (!matches()) {
+            summary += "; first: " + inputs.getFirstMismatch();
+        }
+        List<String> missing = getMissingEntries();
+        return missing.isEmpty() ? summary : summary + "; not recorded: " + missing;
+    }
+}
@@ -0,0 +1,402 @@
+package org.team5507.lib.planning;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Any-angle (Theta*) path planner over an {@link OccupancyGrid}. Theta* is A* that lets a node's
+ * parent be any visible ancestor rather than only a grid neighbour, so the result is already a
+ * short list of straight segments instead of a staircase of cells.
+ *
+ * <p>All search state lives in primitive arrays sized to the grid and allocated once. Arrays are
+ * invalidated between queries with a generation counter instead of being cleared, so a query
+ * allocates nothing and only touches the cells it expands.
+ *
+ * <p>The planner is not thread safe; give each thread its own instance.
+ */
+public class GridPlanner {
+    /** Returned by {@link #plan} when the goal cannot be reached. */
+    public static final int NO_PATH = -1;
+
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] NEIGHBOR_DY = {0, 0, 1, -1, 1, -1, 1, -1};
+    private static final double SQRT2 = Math.sqrt(2);
+
+    private final OccupancyGrid grid;
+    private final int width;
+    private final int height;
+
+    private final double[] gScore;
+    private final double[] fScore;
+    private final int[] parent;
+    private final int[] stamp;
+    // Position of each cell in the heap, or -1 once the cell has been closed
+    private final int[] heapIndex;
+    private final int[] heap;
+    private final int[] pathScratch;
+    private int heapSize;
+    private int generation;
+    private int expanded;
+
+    /**
+     * Creates a planner for the given grid. The grid should already be inflated by the robot's
+     * radius.
+     *
+     * @param grid The grid to plan over
+     */
+    public GridPlanner(OccupancyGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int cells = width * height;
+        this.gScore = new double[cells];
+        this.fScore = new double[cells];
+        this.parent = new int[cells];
+        this.stamp = new int[cells];
+        this.heapIndex = new int[cells];
+        this.heap = new int[cells];
+        this.pathScratch = new int[cells];
+    }
+
+    /**
+     * Plans a path between two field positions. The start may lie inside an inflated obstacle,
+     * as happens when the robot is pressed against a field element, in which case the path first
+     * leaves to the nearest free cell. The goal may not.
+     *
+     * @param startX The x of the start in meters
+     * @param startY The y of the start in meters
+     * @param goalX The x of the goal in meters
+     * @param goalY The y of the goal in meters
+     * @param outX The array the x of each path vertex is written to
+     * @param outY The array the y of each path vertex is written to
+     * @return The number of vertices written, including the start and goal, or {@link #NO_PATH}
+     */
+    public int plan(
+            double startX,
+            double startY,
+            double goalX,
+            double goalY,
+            double[] outX,
+            double[] outY) {
+        int sx = clamp(grid.toCell(startX), width);
+        int sy = clamp(grid.toCell(startY), height);
+        int gx = grid.toCell(goalX);
+        int gy = grid.toCell(goalY);
+        if (grid.isBlocked(gx, gy)) {
+            return NO_PATH;
+        }
+        boolean escape = grid.isBlocked(sx, sy);
+        if (escape) {
+            int free = nearestFree(sx, sy);
+            if (free < 0) {
+                return NO_PATH;
+            }
+            sx = free % width;
+            sy = free / width;
+        }
+        int start = sy * width + sx;
+        int goal = gy * width + gx;
+
+        nextGeneration();
+        expanded = 0;
+        heapSize = 0;
+        visit(start, start, 0, heuristic(sx, sy, gx, gy));
+
+        while (heapSize > 0) {
+            int current = pop();
+            expanded++;
+            if (current == goal) {
+                return writePath(start, goal, escape, startX, startY, goalX, goalY, outX, outY);
+            }
+            int cx = current % width;
+            int cy = current / width;
+            int currentParent = parent[current];
+            int px = currentParent % width;
+            int py = currentParent / width;
+
+            for (int k = 0; k < NEIGHBOR_DX.length; k++) {
+                int nx = cx + NEIGHBOR_DX[k];
+                int ny = cy + NEIGHBOR_DY[k];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int neighbor = ny * width + nx;
+                if (grid.isBlockedIndex(neighbor)) {
+                    continue;
+                }
+                boolean seen = stamp[neighbor] == generation;
+                if (seen && heapIndex[neighbor] < 0) {
+                    continue; // closed
+                }
+                if (k >= 4 && (grid.isBlocked(nx, cy) || grid.isBlocked(cx, ny))) {
+                    continue; // do not cut corners
+                }
+
+                // Theta*: try to connect straight to our parent first
+                int from;
+                double g;
+                if (lineOfSight(px, py, nx, ny)) {
+                    from = currentParent;
+                    g = gScore[currentParent] + distance(px, py, nx, ny);
+                } else {
+                    from = current;
+                    g = gScore[current] + (k >= 4 ? SQRT2 : 1);
+                }
+                if (!seen || g < gScore[neighbor]) {
+                    visit(neighbor, from, g, g + heuristic(nx, ny, gx, gy));
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * Converts a planned path to waypoints for {@link
+     * org.team5507.lib.trajectory.TrajectoryService} or {@code TrajectoryGenerator}. Interior
+     * waypoints face along the bisector of their two segments so the spline passes through
+     * corners smoothly. This allocates and is meant to run once per plan.
+     *
+     * @param x The x of each path vertex
+     * @param y The y of each path vertex
+     * @param count The number of vertices returned by {@link #plan}
+     * @param startHeading The heading of the robot at the start
+     * @param endHeading The desired heading at the goal
+     * @return The waypoints
+     */
+    public static List<Pose2d> toWaypoints(
+            double[] x, double[] y, int count, Rotation2d startHeading, Rotation2d endHeading) {
+        List<Pose2d> waypoints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Rotation2d heading;
+            if (i == 0) {
+                heading = startHeading;
+            } else if (i == count - 1) {
+                heading = endHeading;
+            } else {
+                double inX = x[i] - x[i - 1];
+                double inY = y[i] - y[i - 1];
+                double inNorm = Math.hypot(inX, inY);
+                double outX = x[i + 1] - x[i];
+                double outY = y[i + 1] - y[i];
+                double outNorm = Math.hypot(outX, outY);
+                heading =
+                        new Rotation2d(
+                                inX / inNorm + outX / outNorm, inY / inNorm + outY / outNorm);
+            }
+            waypoints.add(new Pose2d(x[i], y[i], heading));
+        }
+        return waypoints;
+    }
+
+    /**
+     * Returns the number of cells expanded by the last call to {@link #plan}, for tuning the grid
+     * resolution.
+     *
+     * @return The number of expanded cells
+     */
+    public int getLastExpandedCount() {
+        return expanded;
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    private int writePath(
+            int start,
+            int goal,
+            boolean escape,
+            double startX,
+            double startY,
+            double goalX,
+            double goalY,
+            double[] outX,
+            double[] outY) {
+        int count = 0;
+        int cell = goal;
+        pathScratch[count++] = cell;
+        while (cell != start) {
+            cell = parent[cell];
+            pathScratch[count++] = cell;
+        }
+        if (escape) {
+            // Keep the free cell as a vertex and prepend the real, blocked start
+            pathScratch[count++] = start;
+        } else if (count == 1) {
+            // Start and goal share a cell
+            pathScratch[count++] = start;
+        }
+        if (count > outX.length || count > outY.length) {
+            throw new IllegalArgumentException(
+                    "Path of " + count + " vertices does not fit the output arrays");
+        }
+        for (int i = 0; i < count; i++) {
+            int c = pathScratch[count - 1 - i];
+            outX[i] = grid.cellCenter(c % width);
+            outY[i] = grid.cellCenter(c / width);
+        }
+        // Use the exact endpoints rather than the centers of their cells
+        outX[0] = startX;
+        outY[0] = startY;
+        outX[count - 1] = goalX;
+        outY[count - 1] = goalY;
+        return count;
+    }
+
+    /**
+     * Walks the cells crossed by the segment between two cell centers (Amanatides-Woo). Crossing
+     * exactly through a corner requires both cells beside the corner to be free.
+     */
+    private boolean lineOfSight(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int stepX = x1 > x0 ? 1 : -1;
+        int stepY = y1 > y0 ? 1 : -1;
+        int x = x0;
+        int y = y0;
+        // The next x boundary is crossed at t = (2 * ix + 1) / (2 * dx); compare in integers
+        int ix = 0;
+        int iy = 0;
+        while (ix < dx || iy < dy) {
+            long tx = (long) (2 * ix + 1) * dy;
+            long ty = (long) (2 * iy + 1) * dx;
+            if (iy >= dy || (ix < dx && tx < ty)) {
+                x += stepX;
+                ix++;
+            } else if (ix >= dx || ty < tx) {
+                y += stepY;
+                iy++;
+            } else {
+                if (grid.isBlocked(x + stepX, y) || grid.isBlocked(x, y + stepY)) {
+                    return false;
+                }
+                x += stepX;
+                y += stepY;
+                ix++;
+                iy++;
+            }
+            if (grid.isBlockedIndex(y * width + x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Searches rings of growing size around a cell for the closest free cell. */
+    private int nearestFree(int cx, int cy) {
+        int maxRing = Math.max(width, height);
+        for (int r = 1; r < maxRing; r++) {
+            int best = -1;
+            int bestDistSq = Integer.MAX_VALUE;
+            for (int dy = -r; dy <= r; dy++) {
+                for (int dx = -r; dx <= r; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != r) {
+                        continue;
+                    }
+                    int distSq = dx * dx + dy * dy;
+                    if (distSq < bestDistSq && !grid.isBlocked(cx + dx, cy + dy)) {
+                        best = (cy + dy) * width + cx + dx;
+                        bestDistSq = distSq;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    private void visit(int cell, int from, double g, double f) {
+        boolean inHeap = stamp[cell] == generation;
+        stamp[cell] = generation;
+        parent[cell] = from;
+        gScore[cell] = g;
+        fScore[cell] = f;
+        if (inHeap) {
+            siftUp(heapIndex[cell]);
+        } else {
+            heap[heapSize] = cell;
+            heapIndex[cell] = heapSize;
+            siftUp(heapSize++);
+        }
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        double f = fScore[cell];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            int parentCell = heap[p];
+            if (fScore[parentCell] <= f) {
+                break;
+            }
+            heap[i] = parentCell;
+            heapIndex[parentCell] = i;
+            i = p;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        double f = fScore[cell];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && fScore[heap[child + 1]] < fScore[heap[child]]) {
+                child++;
+            }
+            int childCell = heap[child];
+            if (fScore[childCell] >= f) {
+                break;
+            }
+            heap[i] = childCell;
+            heapIndex[childCell] = i;
+            i = child;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            // Wrapped around; old stamps could now collide with new ones
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private static double heuristic(int x0, int y0, int x1, int y1) {
+        return distance(x0, y0, x1, y1);
+    }
+
+    private static double distance(int x0, int y0, int x1, int y1) {
+        int dx = x1 - x0;
+        int dy = y1 - y0;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static int clamp(int cell, int size) {
+        return Math.max(0, Math.min(size - 1, cell));
+    }
+}
@@ -0,0 +1,224 @@
+package org.team5507.lib.planning;
+
+/**
+ * A fixed-resolution grid over the field marking which cells a robot cannot occupy. Obstacles are
+ * drawn once, typically in robotInit, then {@link #inflate} grows them by the robot's radius so
+ * the planner can treat the robot as a point.
+ *
+ * <p>Cell (0, 0) covers field coordinates [0, resolution) in both x and y.
+ */
+public class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final double resolution;
+    private final boolean[] blocked;
+
+    /**
+     * Creates an empty grid covering a field of the given size.
+     *
+     * @param fieldLength The field size along x in meters
+     * @param fieldWidth The field size along y in meters
+     * @param resolution The side of one cell in meters
+     */
+    public OccupancyGrid(double fieldLength, double fieldWidth, double resolution) {
+        this(
+                (int) Math.ceil(fieldLength / resolution),
+                (int) Math.ceil(fieldWidth / resolution),
+                resolution);
+    }
+
+    private OccupancyGrid(int width, int height, double resolution) {
+        if (width <= 0 || height <= 0 || resolution <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.resolution = resolution;
+        this.blocked = new boolean[width * height];
+    }
+
+    /**
+     * Marks an axis-aligned rectangle as blocked.
+     *
+     * @param minX The minimum x of the rectangle in meters
+     * @param minY The minimum y of the rectangle in meters
+     * @param maxX The maximum x of the rectangle in meters
+     * @param maxY The maximum y of the rectangle in meters
+     * @return This grid, for chaining
+     */
+    public OccupancyGrid addRectangle(double minX, double minY, double maxX, double maxY) {
+        int x0 = toCell(minX);
+        int x1 = toCell(maxX);
+        int y0 = toCell(minY);
+        int y1 = toCell(maxY);
+        if (x1 < 0 || y1 < 0 || x0 >= width || y0 >= height) {
+            // Entirely off the grid; clamping would block the edge instead
+            return this;
+        }
+        for (int cy = clampY(y0); cy <= clampY(y1); cy++) {
+            for (int cx = clampX(x0); cx <= clampX(x1); cx++) {
+                blocked[cy * width + cx] = true;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Marks a circle as blocked.
+     *
+     * @param centerX The x of the center in meters
+     * @param centerY The y of the center in meters
+     * @param radius The radius in meters
+     * @return This grid, for chaining
+     */
+    public OccupancyGrid addCircle(double centerX, double centerY, double radius) {
+        int x0 = clampX(toCell(centerX - radius));
+        int x1 = clampX(toCell(centerX + radius));
+        int y0 = clampY(toCell(centerY - radius));
+        int y1 = clampY(toCell(centerY + radius));
+        double radiusSq = radius * radius;
+        for (int cy = y0; cy <= y1; cy++) {
+            double dy = cellCenter(cy) - centerY;
+            for (int cx = x0; cx <= x1; cx++) {
+                double dx = cellCenter(cx) - centerX;
+                if (dx * dx + dy * dy <= radiusSq) {
+                    blocked[cy * width + cx] = true;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Marks a simple polygon as blocked. The vertices use the same parallel-array layout as
+     * {@link org.team5507.lib.util.GeomBatchUtil}, so field element outlines can be transformed
+     * there first.
+     *
+     * @param x The x components of the vertices in meters
+     * @param y The y components of the vertices in meters
+     * @param count The number of vertices
+     * @return This grid, for chaining
+     */
+    public OccupancyGrid addPolygon(double[] x, double[] y, int count) {
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        int y0 = clampY(toCell(minY));
+        int y1 = clampY(toCell(maxY));
+        for (int cy = y0; cy <= y1; cy++) {
+            double py = cellCenter(cy);
+            for (int cx = 0; cx < width; cx++) {
+                if (contains(x, y, count, cellCenter(cx), py)) {
+                    blocked[cy * width + cx] = true;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Creates a copy of this grid with every obstacle grown by the given radius, and with a
+     * border of the same thickness along the field edges.
+     *
+     * @param radius The distance to grow obstacles by, normally half the robot's diagonal plus a
+     *     safety margin, in meters
+     * @return The inflated grid
+     */
+    public OccupancyGrid inflate(double radius) {
+        OccupancyGrid inflated = new OccupancyGrid(width, height, resolution);
+        int r = (int) Math.ceil(radius / resolution);
+        int rSq = r * r;
+        for (int cy = 0; cy < height; cy++) {
+            for (int cx = 0; cx < width; cx++) {
+                if (cx < r || cy < r || cx >= width - r || cy >= height - r) {
+                    inflated.blocked[cy * width + cx] = true;
+                }
+                if (!blocked[cy * width + cx]) {
+                    continue;
+                }
+                for (int dy = -r; dy <= r; dy++) {
+                    int ny = cy + dy;
+                    if (ny < 0 || ny >= height) {
+                        continue;
+                    }
+                    for (int dx = -r; dx <= r; dx++) {
+                        int nx = cx + dx;
+                        if (nx >= 0 && nx < width && dx * dx + dy * dy <= rSq) {
+                            inflated.blocked[ny * width + nx] = true;
+                        }
+                    }
+                }
+            }
+        }
+        return inflated;
+    }
+
+    public boolean isBlocked(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) {
+            return true;
+        }
+        return blocked[cellY * width + cellX];
+    }
+
+    public boolean isBlocked(double x, double y) {
+        return isBlocked(toCell(x), toCell(y));
+    }
+
+    boolean isBlockedIndex(int index) {
+        return blocked[index];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Converts a field coordinate to a cell coordinate along either axis.
+     *
+     * @param meters The coordinate in meters
+     * @return The cell coordinate, which may lie outside the grid
+     */
+    public int toCell(double meters) {
+        return (int) Math.floor(meters / resolution);
+    }
+
+    /**
+     * Converts a cell coordinate to the field coordinate of the cell's center along either axis.
+     *
+     * @param cell The cell coordinate
+     * @return The coordinate of the cell's center in meters
+     */
+    public double cellCenter(int cell) {
+        return (cell + 0.5) * resolution;
+    }
+
+    private int clampX(int cell) {
+        return Math.max(0, Math.min(width - 1, cell));
+    }
+
+    private int clampY(int cell) {
+        return Math.max(0, Math.min(height - 1, cell));
+    }
+
+    private static boolean contains(double[] x, double[] y, int count, double px, double py) {
+        boolean inside = false;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            if ((y[i] > py) != (y[j] > py)
+                    && px < (x[j] - x[i]) * (py - y[i]) / (y[j] - y[i]) + x[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,141 @@
+package org.team5507.lib.trajectory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A trajectory stored as samples at a fixed time step. Sampling is an index computation plus a
+ * linear blend between two neighbouring samples, so it runs in constant time and, when used with
+ * {@link #sample(double, Sample)}, creates no objects.
+ *
+ * <p>Headings are stored unwrapped (continuous across the +/- pi boundary) so that blending
+ * between samples never takes the long way around.
+ */
+public abstract class FixedStepTrajectory {
+    /** Default resampling step, matching the main robot loop. */
+    public static final double DEFAULT_DT = 0.02;
+
+    private final double dt;
+    private final double invDt;
+    private final int length;
+
+    /**
+     * Holds one sampled state of a trajectory. Callers allocate one instance and reuse it every
+     * cycle.
+     */
+    public static class Sample {
+        public double timeSeconds;
+        public double x;
+        public double y;
+        /** Heading in radians; not wrapped, so it may lie outside [-pi, pi]. */
+        public double heading;
+
+        public double velocity;
+        public double acceleration;
+        public double curvature;
+
+        /**
+         * Converts this sample to a pose, e.g. for use with {@link
+         * org.team5507.lib.util.GeomUtil}. This allocates.
+         *
+         * @return The pose of this sample
+         */
+        public Pose2d toPose() {
+            return new Pose2d(x, y, new Rotation2d(heading));
+        }
+    }
+
+    protected FixedStepTrajectory(double dt, int length) {
+        if (dt <= 0) {
+            throw new IllegalArgumentException("dt must be positive, got " + dt);
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("A trajectory needs at least one sample");
+        }
+        this.dt = dt;
+        this.invDt = 1.0 / dt;
+        this.length = length;
+    }
+
+    /**
+     * Samples the trajectory at the given time. Times before the start or after the end are
+     * clamped to the first or last sample.
+     *
+     * @param timeSeconds The time since the start of the trajectory
+     * @param out The sample to fill in
+     * @return The filled in sample, for chaining
+     */
+    public Sample sample(double timeSeconds, Sample out) {
+        double pos = timeSeconds * invDt;
+        int i;
+        double t;
+        if (length == 1 || !(pos > 0)) { // also catches NaN
+            i = 0;
+            t = 0;
+        } else if (pos >= length - 1) {
+            i = length - 2;
+            t = 1;
+        } else {
+            i = (int) pos;
+            t = pos - i;
+        }
+
+        int j = Math.min(i + 1, length - 1);
+        out.x = blend(getX(i), getX(j), t);
+        out.y = blend(getY(i), getY(j), t);
+        out.heading = blend(getHeading(i), getHeading(j), t);
+        out.velocity = blend(getVelocity(i), getVelocity(j), t);
+        out.acceleration = blend(getAcceleration(i), getAcceleration(j), t);
+        out.curvature = blend(getCurvature(i), getCurvature(j), t);
+        out.timeSeconds = Math.max(0, Math.min(timeSeconds, getTotalTimeSeconds()));
+        return out;
+    }
+
+    /**
+     * Samples the pose at the given time. This allocates; prefer {@link #sample(double, Sample)}
+     * inside the loop.
+     *
+     * @param timeSeconds The time since the start of the trajectory
+     * @return The pose at that time
+     */
+    public Pose2d samplePose(double timeSeconds) {
+        return sample(timeSeconds, new Sample()).toPose();
+    }
+
+    public Pose2d getInitialPose() {
+        return new Pose2d(getX(0), getY(0), new Rotation2d(getHeading(0)));
+    }
+
+    public Pose2d getFinalPose() {
+        int last = length - 1;
+        return new Pose2d(getX(last), getY(last), new Rotation2d(getHeading(last)));
+    }
+
+    public double getDt() {
+        return dt;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public double getTotalTimeSeconds() {
+        return (length - 1) * dt;
+    }
+
+    public abstract double getX(int index);
+
+    public abstract double getY(int index);
+
+    public abstract double getHeading(int index);
+
+    public abstract double getVelocity(int index);
+
+    public abstract double getAcceleration(int index);
+
+    public abstract double getCurvature(int index);
+
+    private static double blend(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
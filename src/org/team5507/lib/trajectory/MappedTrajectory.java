@@ -0,0 +1,156 @@
+package org.team5507.lib.trajectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed-step trajectory read directly out of a memory-mapped {@link TrajectoryFile}. Samples
+ * are decoded on access with absolute buffer reads, so nothing is copied onto the heap and opening
+ * a trajectory costs the same regardless of its length.
+ *
+ * <p>Instances are created with {@link TrajectoryFile#map} or {@link
+ * TrajectoryFile#mapFromDeploy}.
+ */
+public class MappedTrajectory extends FixedStepTrajectory {
+    private static final int X = 0;
+    private static final int Y = Float.BYTES;
+    private static final int HEADING = 2 * Float.BYTES;
+    private static final int VELOCITY = 3 * Float.BYTES;
+    private static final int ACCELERATION = 4 * Float.BYTES;
+    private static final int CURVATURE = 5 * Float.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int keyCount;
+    private final int records;
+
+    MappedTrajectory(ByteBuffer buffer, String source) throws IOException {
+        super(
+                checkHeader(buffer, source).getDouble(TrajectoryFile.DT_OFFSET),
+                buffer.getInt(TrajectoryFile.COUNT_OFFSET));
+        this.keyCount = buffer.getInt(TrajectoryFile.KEY_COUNT_OFFSET);
+        this.records = TrajectoryFile.HEADER_BYTES + keyCount * Double.BYTES;
+        long expected = records + (long) getLength() * TrajectoryFile.RECORD_BYTES;
+        if (buffer.capacity() < expected) {
+            throw new IOException(
+                    source
+                            + " is truncated: expected "
+                            + expected
+                            + " bytes, found "
+                            + buffer.capacity());
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Checks the key the trajectory was written with, e.g. to confirm a cache file holds the
+     * trajectory it is named after.
+     *
+     * @param key The expected key values
+     * @return Whether the file has exactly this key
+     */
+    boolean hasKey(double[] key) {
+        if (key.length != keyCount) {
+            return false;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            double value = buffer.getDouble(TrajectoryFile.HEADER_BYTES + i * Double.BYTES);
+            if (Double.doubleToLongBits(value) != Double.doubleToLongBits(key[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies every sample onto the heap. Useful when a trajectory will be sampled heavily and the
+     * file should not stay mapped.
+     *
+     * @return A heap copy of this trajectory
+     */
+    public SampledTrajectory toSampledTrajectory() {
+        int n = getLength();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] heading = new double[n];
+        double[] velocity = new double[n];
+        double[] acceleration = new double[n];
+        double[] curvature = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = getX(i);
+            y[i] = getY(i);
+            heading[i] = getHeading(i);
+            velocity[i] = getVelocity(i);
+            acceleration[i] = getAcceleration(i);
+            curvature[i] = getCurvature(i);
+        }
+        return new SampledTrajectory(getDt(), x, y, heading, velocity, acceleration, curvature);
+    }
+
+    @Override
+    public final double getX(int index) {
+        return read(index, X);
+    }
+
+    @Override
+    public final double getY(int index) {
+        return read(index, Y);
+    }
+
+    @Override
+    public final double getHeading(int index) {
+        return read(index, HEADING);
+    }
+
+    @Override
+    public final double getVelocity(int index) {
+        return read(index, VELOCITY);
+    }
+
+    @Override
+    public final double getAcceleration(int index) {
+        return read(index, ACCELERATION);
+    }
+
+    @Override
+    public final double getCurvature(int index) {
+        return read(index, CURVATURE);
+    }
+
+    private double read(int index, int field) {
+        return buffer.getFloat(records + index * TrajectoryFile.RECORD_BYTES + field);
+    }
+
+    private static ByteBuffer checkHeader(ByteBuffer buffer, String source)
+            throws IOException {
+        if (buffer.capacity() < TrajectoryFile.HEADER_BYTES
+                || buffer.getInt(TrajectoryFile.MAGIC_OFFSET) != TrajectoryFile.MAGIC) {
+            throw new IOException(source + " is not a binary trajectory");
+        }
+        short version = buffer.getShort(TrajectoryFile.VERSION_OFFSET);
+        if (version != TrajectoryFile.VERSION) {
+            throw new IOException(
+                    source
+                            + " has format version "
+                            + version
+                            + ", expected "
+                            + TrajectoryFile.VERSION);
+        }
+        int keyCount = buffer.getInt(TrajectoryFile.KEY_COUNT_OFFSET);
+        if (keyCount < 0
+                || keyCount > (buffer.capacity() - TrajectoryFile.HEADER_BYTES) / Double.BYTES) {
+            throw new IOException(source + " has an invalid key length " + keyCount);
+        }
+        if (buffer.getShort(TrajectoryFile.RECORD_SIZE_OFFSET) != TrajectoryFile.RECORD_BYTES) {
+            throw new IOException(source + " has an unexpected record size");
+        }
+        double dt = buffer.getDouble(TrajectoryFile.DT_OFFSET);
+        if (!(dt > 0) || Double.isInfinite(dt)) {
+            throw new IOException(source + " has an invalid time step " + dt);
+        }
+        int count = buffer.getInt(TrajectoryFile.COUNT_OFFSET);
+        if (count <= 0) {
+            throw new IOException(source + " has an invalid sample count " + count);
+        }
+        return buffer;
+    }
+}
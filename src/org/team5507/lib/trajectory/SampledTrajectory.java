@@ -0,0 +1,138 @@
+package org.team5507.lib.trajectory;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * A trajectory resampled at a fixed time step into primitive arrays held on the heap. See {@link
+ * FixedStepTrajectory} for how sampling works.
+ */
+public class SampledTrajectory extends FixedStepTrajectory {
+    private final double[] x;
+    private final double[] y;
+    private final double[] heading;
+    private final double[] velocity;
+    private final double[] acceleration;
+    private final double[] curvature;
+
+    /**
+     * Creates a trajectory from already resampled arrays. The arrays are used directly, not
+     * copied, and must all have the same non-zero length.
+     *
+     * @param dt The time between consecutive samples in seconds
+     * @param x The x positions in meters
+     * @param y The y positions in meters
+     * @param heading The unwrapped headings in radians
+     * @param velocity The velocities in meters per second
+     * @param acceleration The accelerations in meters per second squared
+     * @param curvature The curvatures in radians per meter
+     */
+    public SampledTrajectory(
+            double dt,
+            double[] x,
+            double[] y,
+            double[] heading,
+            double[] velocity,
+            double[] acceleration,
+            double[] curvature) {
+        super(dt, x.length);
+        int n = x.length;
+        if (y.length != n
+                || heading.length != n
+                || velocity.length != n
+                || acceleration.length != n
+                || curvature.length != n) {
+            throw new IllegalArgumentException("Sample arrays must all have the same length");
+        }
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.curvature = curvature;
+    }
+
+    /**
+     * Resamples a WPILib trajectory at a fixed time step. The step is shortened slightly when
+     * needed so that the last sample falls exactly on the end of the trajectory; {@link #getDt()}
+     * returns the step actually used. This walks the source trajectory once and allocates, so it
+     * belongs in robotInit or a background thread, not in the loop.
+     *
+     * @param trajectory The trajectory to resample
+     * @param dt The longest time between consecutive samples in seconds
+     * @return The resampled trajectory
+     */
+    public static SampledTrajectory fromTrajectory(Trajectory trajectory, double dt) {
+        if (trajectory.getStates().isEmpty()) {
+            throw new IllegalArgumentException("Cannot resample an empty trajectory");
+        }
+        if (dt <= 0) {
+            throw new IllegalArgumentException("dt must be positive, got " + dt);
+        }
+        double total = trajectory.getTotalTimeSeconds();
+        int steps = (int) Math.ceil(total / dt);
+        double step = steps > 0 ? total / steps : dt;
+        int n = steps + 1;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] heading = new double[n];
+        double[] velocity = new double[n];
+        double[] acceleration = new double[n];
+        double[] curvature = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            Trajectory.State state = trajectory.sample(i == steps ? total : i * step);
+            x[i] = state.poseMeters.getX();
+            y[i] = state.poseMeters.getY();
+            double raw = state.poseMeters.getRotation().getRadians();
+            heading[i] = i == 0 ? raw : heading[i - 1] + wrap(raw - heading[i - 1]);
+            velocity[i] = state.velocityMetersPerSecond;
+            acceleration[i] = state.accelerationMetersPerSecondSq;
+            curvature[i] = state.curvatureRadPerMeter;
+        }
+        return new SampledTrajectory(step, x, y, heading, velocity, acceleration, curvature);
+    }
+
+    /**
+     * Resamples a WPILib trajectory at {@link #DEFAULT_DT}.
+     *
+     * @param trajectory The trajectory to resample
+     * @return The resampled trajectory
+     */
+    public static SampledTrajectory fromTrajectory(Trajectory trajectory) {
+        return fromTrajectory(trajectory, DEFAULT_DT);
+    }
+
+    @Override
+    public final double getX(int index) {
+        return x[index];
+    }
+
+    @Override
+    public final double getY(int index) {
+        return y[index];
+    }
+
+    @Override
+    public final double getHeading(int index) {
+        return heading[index];
+    }
+
+    @Override
+    public final double getVelocity(int index) {
+        return velocity[index];
+    }
+
+    @Override
+    public final double getAcceleration(int index) {
+        return acceleration[index];
+    }
+
+    @Override
+    public final double getCurvature(int index) {
+        return curvature[index];
+    }
+
+    private static double wrap(double angle) {
+        return Math.IEEEremainder(angle, 2 * Math.PI);
+    }
+}
@@ -0,0 +1,141 @@
+package org.team5507.lib.trajectory;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the compact binary trajectory format. All values are little endian.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, the ASCII bytes "T5TJ"
+ *      4     2  format version, currently 1
+ *      6     2  bytes per sample record, currently 24
+ *      8     4  number of samples
+ *     12     4  number of key values, zero if there is no key
+ *     16     8  time between samples in seconds (double)
+ *     24   ...  key values (doubles)
+ *          ...  sample records
+ * </pre>
+ *
+ * <p>Each sample record holds six floats: x, y, unwrapped heading, velocity, acceleration and
+ * curvature, in meters, radians and seconds. Floats keep the files small and still resolve
+ * positions to well under a millimeter anywhere on the field.
+ *
+ * <p>The key identifies what a trajectory was generated from, so a cache can check that a file
+ * really holds the trajectory it is looking for.
+ */
+public final class TrajectoryFile {
+    /** The file extension used for binary trajectories. */
+    public static final String EXTENSION = ".traj";
+
+    public static final int MAGIC = 0x4A54_3554; // "T5TJ" read as a little endian int
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 24;
+    public static final int RECORD_BYTES = 6 * Float.BYTES;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 6;
+    static final int COUNT_OFFSET = 8;
+    static final int KEY_COUNT_OFFSET = 12;
+    static final int DT_OFFSET = 16;
+
+    private TrajectoryFile() {}
+
+    /**
+     * Writes a trajectory in the binary format.
+     *
+     * @param trajectory The trajectory to write
+     * @param path The file to create or replace
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(FixedStepTrajectory trajectory, Path path) throws IOException {
+        write(trajectory, path, new double[0]);
+    }
+
+    /**
+     * Writes a trajectory in the binary format with a key, see {@link MappedTrajectory#hasKey}.
+     *
+     * @param trajectory The trajectory to write
+     * @param path The file to create or replace
+     * @param key The values identifying the trajectory
+     * @throws IOException If the file cannot be written
+     */
+    static void write(FixedStepTrajectory trajectory, Path path, double[] key)
+            throws IOException {
+        int n = trajectory.getLength();
+        ByteBuffer buffer =
+                ByteBuffer.allocate(HEADER_BYTES + key.length * Double.BYTES + n * RECORD_BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) RECORD_BYTES)
+                .putInt(n)
+                .putInt(key.length)
+                .putDouble(trajectory.getDt());
+        for (double value : key) {
+            buffer.putDouble(value);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putFloat((float) trajectory.getX(i))
+                    .putFloat((float) trajectory.getY(i))
+                    .putFloat((float) trajectory.getHeading(i))
+                    .putFloat((float) trajectory.getVelocity(i))
+                    .putFloat((float) trajectory.getAcceleration(i))
+                    .putFloat((float) trajectory.getCurvature(i));
+        }
+        buffer.flip();
+
+        try (FileChannel channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a binary trajectory. Only the header is read here; samples are paged in by the
+     * operating system as they are first sampled.
+     *
+     * @param path The file to map
+     * @return The mapped trajectory
+     * @throws IOException If the file cannot be read or is not a valid trajectory
+     */
+    public static MappedTrajectory map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                            .order(ByteOrder.LITTLE_ENDIAN);
+            // The mapping stays valid after the channel is closed
+            return new MappedTrajectory(buffer, path.toString());
+        }
+    }
+
+    /**
+     * Memory-maps a binary trajectory from the deploy directory, which is {@code
+     * /home/lvuser/deploy} on the robot and {@code src/main/deploy} in simulation.
+     *
+     * @param name The file name relative to the deploy directory, with or without the {@link
+     *     #EXTENSION}
+     * @return The mapped trajectory
+     * @throws IOException If the file cannot be read or is not a valid trajectory
+     */
+    public static MappedTrajectory mapFromDeploy(String name) throws IOException {
+        if (!name.endsWith(EXTENSION)) {
+            name += EXTENSION;
+        }
+        return map(new File(Filesystem.getDeployDirectory(), name).toPath());
+    }
+}
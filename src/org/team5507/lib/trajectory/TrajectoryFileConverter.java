@@ -0,0 +1,81 @@
+package org.team5507.lib.trajectory;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline converter from PathWeaver JSON trajectories to the binary {@link TrajectoryFile}
+ * format. Run it on a development machine before deploying, for example over the files in {@code
+ * src/main/deploy/paths}:
+ *
+ * <pre>
+ * java -cp lib5507.jar org.team5507.lib.trajectory.TrajectoryFileConverter [--dt 0.02] PATH...
+ * </pre>
+ *
+ * <p>Each PATH may be a {@code .json} file or a directory, in which case every {@code .json} file
+ * directly inside it is converted. Output files are written next to their inputs with the {@link
+ * TrajectoryFile#EXTENSION} extension.
+ */
+public final class TrajectoryFileConverter {
+    private TrajectoryFileConverter() {}
+
+    public static void main(String[] args) {
+        double dt = FixedStepTrajectory.DEFAULT_DT;
+        int converted = 0;
+        boolean failed = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--dt".equals(args[i]) && i + 1 < args.length) {
+                dt = Double.parseDouble(args[++i]);
+                continue;
+            }
+            try {
+                Path input = Paths.get(args[i]);
+                if (Files.isDirectory(input)) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*.json")) {
+                        for (Path file : files) {
+                            convert(file, dt);
+                            converted++;
+                        }
+                    }
+                } else {
+                    convert(input, dt);
+                    converted++;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to convert " + args[i] + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+
+        System.out.println("Converted " + converted + " trajectories");
+        if (failed || args.length == 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a single PathWeaver JSON file.
+     *
+     * @param input The JSON file to read
+     * @param dt The time between samples in the output, in seconds
+     * @return The path of the written binary file
+     * @throws IOException If the input cannot be parsed or the output cannot be written
+     */
+    public static Path convert(Path input, double dt) throws IOException {
+        Trajectory trajectory = TrajectoryUtil.fromPathweaverJson(input);
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        Path output = input.resolveSibling(name + TrajectoryFile.EXTENSION);
+        TrajectoryFile.write(SampledTrajectory.fromTrajectory(trajectory, dt), output);
+        return output;
+    }
+}
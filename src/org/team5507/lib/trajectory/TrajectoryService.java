@@ -0,0 +1,262 @@
+package org.team5507.lib.trajectory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates trajectories on a pool of background threads so the main loop never blocks on {@link
+ * TrajectoryGenerator}. Results are cached by their waypoints and constraints with least recently
+ * used eviction, and can optionally be persisted to a disk cache so paths generated in one boot
+ * are free in the next.
+ *
+ * <p>Typical use is to {@link #prewarm} the paths an auto may need while disabled, then {@link
+ * #generate} them again when needed and use {@link CompletableFuture#getNow} to pick up the
+ * already finished result without blocking.
+ */
+public class TrajectoryService {
+    /** Default number of trajectories kept in memory. */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final ExecutorService executor;
+    private final Map<Key, CompletableFuture<FixedStepTrajectory>> cache;
+    // Futures not yet completed, guarded by cache, so close() can complete them
+    private final Set<CompletableFuture<FixedStepTrajectory>> pending = new HashSet<>();
+    private final double dt;
+    private volatile File diskCache;
+
+    /** Creates a service with one worker thread, the default capacity and no disk cache. */
+    public TrajectoryService() {
+        this(1, DEFAULT_CAPACITY, FixedStepTrajectory.DEFAULT_DT);
+    }
+
+    /**
+     * Creates a service without a disk cache.
+     *
+     * @param threads The number of worker threads. The roboRIO has two cores, so one is usually
+     *     right.
+     * @param capacity The number of trajectories kept in memory
+     * @param dt The time step generated trajectories are resampled to, in seconds
+     */
+    public TrajectoryService(int threads, int capacity, double dt) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "TrajectoryService-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.NORM_PRIORITY - 1);
+                            return thread;
+                        });
+        this.cache =
+                new LinkedHashMap<>(capacity, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<Key, CompletableFuture<FixedStepTrajectory>> eldest) {
+                        return size() > capacity;
+                    }
+                };
+        this.dt = dt;
+    }
+
+    /**
+     * Enables the disk cache. Generated trajectories are written to this directory in the {@link
+     * TrajectoryFile} format and mapped back in on a later cache miss. Trajectories whose config
+     * has custom constraints are never written, since constraints cannot be identified across
+     * runs.
+     *
+     * @param directory The cache directory, created if missing, e.g. {@code
+     *     /home/lvuser/trajcache}
+     * @return This service, for chaining
+     */
+    public TrajectoryService withDiskCache(File directory) {
+        directory.mkdirs();
+        this.diskCache = directory;
+        return this;
+    }
+
+    /**
+     * Returns the trajectory through the given waypoints, generating it in the background if it
+     * is not cached. Requests for a trajectory that is still being generated share the same
+     * future.
+     *
+     * @param waypoints The poses the trajectory passes through
+     * @param config The constraints the trajectory is generated with
+     * @return A future completed with the trajectory, or exceptionally if generation failed
+     */
+    public CompletableFuture<FixedStepTrajectory> generate(
+            List<Pose2d> waypoints, TrajectoryConfig config) {
+        Key key = new Key(waypoints, config);
+        synchronized (cache) {
+            CompletableFuture<FixedStepTrajectory> future = cache.get(key);
+            if (future != null) {
+                return future;
+            }
+            // Copy the waypoints so later changes by the caller cannot affect the result
+            List<Pose2d> points = new ArrayList<>(waypoints);
+            future = CompletableFuture.supplyAsync(() -> load(key, points, config), executor);
+            cache.put(key, future);
+            pending.add(future);
+            CompletableFuture<FixedStepTrajectory> request = future;
+            future.whenComplete(
+                    (trajectory, error) -> {
+                        synchronized (cache) {
+                            pending.remove(request);
+                            if (error != null) {
+                                // Let the next request retry rather than caching the failure
+                                cache.remove(key, request);
+                            }
+                        }
+                    });
+            return future;
+        }
+    }
+
+    /**
+     * Starts generating a trajectory without waiting for it, e.g. from disabledPeriodic.
+     *
+     * @param waypoints The poses the trajectory passes through
+     * @param config The constraints the trajectory is generated with
+     */
+    public void prewarm(List<Pose2d> waypoints, TrajectoryConfig config) {
+        generate(waypoints, config);
+    }
+
+    /** Drops every trajectory held in memory. The disk cache is left alone. */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Stops the worker threads. Requests that have not finished are cancelled, so their futures
+     * complete exceptionally with a {@link CancellationException} and callers waiting on them
+     * return.
+     */
+    public void close() {
+        executor.shutdownNow();
+        List<CompletableFuture<FixedStepTrajectory>> cancelled;
+        synchronized (cache) {
+            cancelled = new ArrayList<>(pending);
+        }
+        for (CompletableFuture<FixedStepTrajectory> future : cancelled) {
+            future.cancel(false);
+        }
+    }
+
+    private FixedStepTrajectory load(Key key, List<Pose2d> waypoints, TrajectoryConfig config) {
+        File file = key.isPersistable() && diskCache != null ? key.toFile(diskCache, dt) : null;
+        double[] fileKey = file != null ? key.toFileKey(dt) : null;
+        if (file != null && file.isFile()) {
+            try {
+                MappedTrajectory cached = TrajectoryFile.map(file.toPath());
+                // A hash collision or a stale file is a miss, and is regenerated over
+                if (cached.hasKey(fileKey)) {
+                    return cached;
+                }
+            } catch (IOException e) {
+                // Fall through and regenerate over the unreadable file
+                e.printStackTrace();
+            }
+        }
+
+        SampledTrajectory trajectory =
+                SampledTrajectory.fromTrajectory(
+                        TrajectoryGenerator.generateTrajectory(waypoints, config), dt);
+        if (file != null) {
+            try {
+                // Write to a temporary file first so a crash never leaves a partial file behind
+                Path temp = new File(diskCache, file.getName() + ".tmp").toPath();
+                TrajectoryFile.write(trajectory, temp, fileKey);
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return trajectory;
+    }
+
+    /** Identifies a trajectory by its waypoints and constraints. */
+    private static final class Key {
+        private final double[] values;
+        private final List<Object> constraints;
+        private final int hash;
+
+        Key(List<Pose2d> waypoints, TrajectoryConfig config) {
+            int n = waypoints.size();
+            values = new double[3 * n + 5];
+            for (int i = 0; i < n; i++) {
+                Pose2d pose = waypoints.get(i);
+                values[3 * i] = pose.getX();
+                values[3 * i + 1] = pose.getY();
+                values[3 * i + 2] = pose.getRotation().getRadians();
+            }
+            values[3 * n] = config.getMaxVelocity();
+            values[3 * n + 1] = config.getMaxAcceleration();
+            values[3 * n + 2] = config.getStartVelocity();
+            values[3 * n + 3] = config.getEndVelocity();
+            values[3 * n + 4] = config.isReversed() ? 1 : 0;
+            // Constraints have no value equality, so they are compared by identity
+            constraints = new ArrayList<>(config.getConstraints());
+            hash = 31 * Arrays.hashCode(values) + constraints.hashCode();
+        }
+
+        boolean isPersistable() {
+            return constraints.isEmpty();
+        }
+
+        /** @return The values stored in the cache file and compared when it is loaded */
+        double[] toFileKey(double dt) {
+            double[] fileKey = new double[values.length + 1];
+            fileKey[0] = dt;
+            System.arraycopy(values, 0, fileKey, 1, values.length);
+            return fileKey;
+        }
+
+        File toFile(File directory, double dt) {
+            long bits = Double.doubleToLongBits(dt);
+            for (double value : values) {
+                bits = 31 * bits + Double.doubleToLongBits(value);
+            }
+            return new File(directory, Long.toHexString(bits) + TrajectoryFile.EXTENSION);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && Arrays.equals(values, other.values)
+                    && constraints.equals(other.constraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.team5507.lib.util;
+
+/**
+ * Shapes a single joystick axis. The stages always run in the same order: clamp to [-1, 1],
+ * deadband, expo curve, scale, then slew-rate limit. A stage that has not been configured is an
+ * identity, so an axis pays only a few multiplies for the stages it does not use.
+ *
+ * <p>Configure once with the chained setters, then call {@link #calculate} every loop. Nothing is
+ * allocated and no stage is called through an interface.
+ *
+ * <pre>
+ * AxisShaper forward = new AxisShaper().deadband(0.1).expo(0.4).rateLimit(3);
+ * double speed = forward.calculate(-driver.getLeftY());
+ * </pre>
+ */
+public class AxisShaper {
+    private double deadband = 0;
+    private double expo = 0;
+    private double scale = 1;
+    private double maxStep = Double.POSITIVE_INFINITY;
+    private double rateLimit = Double.POSITIVE_INFINITY;
+    private double period = 0.02;
+    private double last = 0;
+
+    /**
+     * Sets the deadband. Inputs inside it become zero and the rest of the range is rescaled so
+     * the output still starts at zero, as in {@link MathUtil#mapJoystickOutput}.
+     *
+     * @param deadband The deadband, between 0 and 1
+     * @return This shaper, for chaining
+     */
+    public AxisShaper deadband(double deadband) {
+        this.deadband = deadband;
+        return this;
+    }
+
+    /**
+     * Sets the expo curve, which blends the linear response with a cubic one: {@code (1 - expo) *
+     * x + expo * x^3}. Zero is linear and one is a pure cubic.
+     *
+     * @param expo The amount of expo, between 0 and 1
+     * @return This shaper, for chaining
+     */
+    public AxisShaper expo(double expo) {
+        this.expo = expo;
+        return this;
+    }
+
+    /**
+     * Uses a pure cubic response. Equivalent to {@code expo(1)}.
+     *
+     * @return This shaper, for chaining
+     */
+    public AxisShaper cubic() {
+        return expo(1);
+    }
+
+    /**
+     * Sets the factor the shaped value is multiplied by, e.g. for a slow mode.
+     *
+     * @param scale The output scale
+     * @return This shaper, for chaining
+     */
+    public AxisShaper scale(double scale) {
+        this.scale = scale;
+        return this;
+    }
+
+    /**
+     * Limits how fast the output may change.
+     *
+     * @param unitsPerSecond The largest change of the output per second
+     * @return This shaper, for chaining
+     */
+    public AxisShaper rateLimit(double unitsPerSecond) {
+        this.rateLimit = unitsPerSecond;
+        this.maxStep = unitsPerSecond * period;
+        return this;
+    }
+
+    /**
+     * Sets how often {@link #calculate} is called, which the rate limit depends on. Defaults to
+     * the 20 ms main loop.
+     *
+     * @param seconds The time between calls in seconds
+     * @return This shaper, for chaining
+     */
+    public AxisShaper period(double seconds) {
+        this.period = seconds;
+        this.maxStep = rateLimit * seconds;
+        return this;
+    }
+
+    /**
+     * Shapes one input sample. Call exactly once per loop so the rate limit sees the right
+     * period.
+     *
+     * @param input The raw axis value
+     * @return The shaped value
+     */
+    public double calculate(double input) {
+        double value = MathUtil.mapJoystickOutput(MathUtil.constrain(input, -1, 1), deadband);
+        value = scale * curve(value, expo);
+        value = MathUtil.constrain(value, last - maxStep, last + maxStep);
+        last = value;
+        return value;
+    }
+
+    /**
+     * Resets the rate limiter so the next output may jump straight to the given value.
+     *
+     * @param value The value the output is assumed to be at
+     */
+    public void reset(double value) {
+        last = value;
+    }
+
+    static double curve(double value, double expo) {
+        return value * (1 - expo + expo * value * value);
+    }
+}
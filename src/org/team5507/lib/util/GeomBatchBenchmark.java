@@ -0,0 +1,71 @@
+package org.team5507.lib.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Compares {@link GeomBatchUtil} with transforming the same points one {@link Translation2d} at a
+ * time. Run it on the roboRIO or a desktop JVM:
+ *
+ * <pre>
+ * java -cp lib5507.jar org.team5507.lib.util.GeomBatchBenchmark [POINTS]
+ * </pre>
+ *
+ * <p>Each round alternately applies a pose and its inverse to the point set, so values stay
+ * bounded, and prints the time per point of both paths. The first rounds include JIT warm-up.
+ */
+public final class GeomBatchBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 200_000;
+
+    private GeomBatchBenchmark() {}
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1: " + count);
+        }
+        double[] x = new double[count];
+        double[] y = new double[count];
+        Translation2d[] points = new Translation2d[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+            y[i] = -i;
+            points[i] = new Translation2d(i, -i);
+        }
+        Pose2d forward = new Pose2d(1, 2, new Rotation2d(0.01));
+        // p = R(-a) (p' - t), so the inverse rotates by -a and translates by -R(-a) t
+        Rotation2d inverse = forward.getRotation().unaryMinus();
+        Pose2d back =
+                new Pose2d(forward.getTranslation().rotateBy(inverse).unaryMinus(), inverse);
+
+        double checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int k = 0; k < ITERATIONS; k++) {
+                GeomBatchUtil.transform(x, y, count, k % 2 == 0 ? forward : back);
+            }
+            long batch = System.nanoTime() - start;
+            checksum += x[count - 1];
+
+            start = System.nanoTime();
+            for (int k = 0; k < ITERATIONS; k++) {
+                Pose2d pose = k % 2 == 0 ? forward : back;
+                for (int i = 0; i < count; i++) {
+                    points[i] =
+                            points[i].rotateBy(pose.getRotation()).plus(pose.getTranslation());
+                }
+            }
+            long objects = System.nanoTime() - start;
+            checksum += points[count - 1].getX();
+
+            double perPoint = (double) ITERATIONS * count;
+            System.out.printf(
+                    "round %d: batch %.2f ns/point, Translation2d %.2f ns/point%n",
+                    round + 1, batch / perPoint, objects / perPoint);
+        }
+        // Printed so the JIT cannot drop the loops
+        System.out.println("checksum " + checksum);
+    }
+}
@@ -0,0 +1,246 @@
+package org.team5507.lib.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Batch versions of the {@link GeomUtil} operations for point sets stored as parallel x[] and y[]
+ * arrays. Every method works in place or into a caller-provided output array, so transforming a
+ * whole set of vision corners or polygon vertices creates no objects.
+ *
+ * <p>Only the first {@code count} entries of each array are touched, which lets callers keep one
+ * oversized buffer and reuse it for point sets of varying size.
+ */
+public final class GeomBatchUtil {
+    private GeomBatchUtil() {}
+
+    /**
+     * Applies a transform to every point in place. This is equivalent to {@code
+     * point.rotateBy(transform.getRotation()).plus(transform.getTranslation())} for each point,
+     * i.e. the points are expressed in the frame the transform describes and are converted to the
+     * parent frame.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points to transform
+     * @param transform The transform to apply
+     */
+    public static void transform(double[] x, double[] y, int count, Transform2d transform) {
+        Translation2d translation = transform.getTranslation();
+        Rotation2d rotation = transform.getRotation();
+        transform(
+                x,
+                y,
+                count,
+                translation.getX(),
+                translation.getY(),
+                rotation.getCos(),
+                rotation.getSin());
+    }
+
+    /**
+     * Converts robot-relative points to field-relative points in place, given the pose of the
+     * robot on the field. This is equivalent to {@code
+     * point.rotateBy(pose.getRotation()).plus(pose.getTranslation())} for each point.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points to transform
+     * @param pose The pose of the frame the points are currently expressed in
+     */
+    public static void transform(double[] x, double[] y, int count, Pose2d pose) {
+        Rotation2d rotation = pose.getRotation();
+        transform(x, y, count, pose.getX(), pose.getY(), rotation.getCos(), rotation.getSin());
+    }
+
+    /**
+     * Applies a rotation of (cos, sin) followed by a translation of (dx, dy) to every point in
+     * place.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points to transform
+     * @param dx The x component of the translation
+     * @param dy The y component of the translation
+     * @param cos The cosine of the rotation
+     * @param sin The sine of the rotation
+     */
+    public static void transform(
+            double[] x, double[] y, int count, double dx, double dy, double cos, double sin) {
+        checkCount(x, y, count);
+        for (int i = 0; i < count; i++) {
+            double px = x[i];
+            double py = y[i];
+            x[i] = px * cos - py * sin + dx;
+            y[i] = px * sin + py * cos + dy;
+        }
+    }
+
+    /**
+     * Converts field-relative points to points relative to the given pose in place. This is the
+     * inverse of {@link #transform(double[], double[], int, Pose2d)} and is equivalent to {@code
+     * point.minus(pose.getTranslation()).rotateBy(pose.getRotation().unaryMinus())} for each
+     * point.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points to transform
+     * @param pose The pose the points should be made relative to
+     */
+    public static void relativeTo(double[] x, double[] y, int count, Pose2d pose) {
+        checkCount(x, y, count);
+        double ox = pose.getX();
+        double oy = pose.getY();
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        for (int i = 0; i < count; i++) {
+            double px = x[i] - ox;
+            double py = y[i] - oy;
+            x[i] = px * cos + py * sin;
+            y[i] = -px * sin + py * cos;
+        }
+    }
+
+    /**
+     * Translates every point in place.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points to translate
+     * @param translation The translation to add to each point
+     */
+    public static void translate(double[] x, double[] y, int count, Translation2d translation) {
+        transform(x, y, count, translation.getX(), translation.getY(), 1, 0);
+    }
+
+    /**
+     * Computes the distance from every point to a target. This is equivalent to {@code
+     * point.getDistance(target)} for each point.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points
+     * @param target The target to measure the distance to
+     * @param out The array the distances are written to
+     */
+    public static void distancesTo(
+            double[] x, double[] y, int count, Translation2d target, double[] out) {
+        distancesTo(x, y, count, target.getX(), target.getY(), out);
+    }
+
+    /**
+     * Computes the distance from every point to a target.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points
+     * @param targetX The x component of the target
+     * @param targetY The y component of the target
+     * @param out The array the distances are written to
+     */
+    public static void distancesTo(
+            double[] x, double[] y, int count, double targetX, double targetY, double[] out) {
+        checkCount(x, y, count);
+        checkCount(out, count);
+        for (int i = 0; i < count; i++) {
+            double dx = targetX - x[i];
+            double dy = targetY - y[i];
+            // Math.hypot guards against overflow we never see on a field and is much slower
+            out[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Finds the point closest to a target.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points
+     * @param targetX The x component of the target
+     * @param targetY The y component of the target
+     * @return The index of the closest point, or -1 if count is zero
+     */
+    public static int nearest(double[] x, double[] y, int count, double targetX, double targetY) {
+        checkCount(x, y, count);
+        int best = -1;
+        double bestDistSq = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double dx = targetX - x[i];
+            double dy = targetY - y[i];
+            double distSq = dx * dx + dy * dy;
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes the field angle, in radians, of the line from every point to a target. This is
+     * equivalent to {@code GeomUtil.direction(target.minus(point)).getRadians()} for each point.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points
+     * @param target The target to aim at
+     * @param out The array the angles are written to, in the range [-pi, pi]
+     */
+    public static void anglesTo(
+            double[] x, double[] y, int count, Translation2d target, double[] out) {
+        checkCount(x, y, count);
+        checkCount(out, count);
+        double targetX = target.getX();
+        double targetY = target.getY();
+        for (int i = 0; i < count; i++) {
+            out[i] = Math.atan2(targetY - y[i], targetX - x[i]);
+        }
+    }
+
+    /**
+     * Computes the angle, in radians, a robot at the given pose would have to turn to face each
+     * point. Positive angles are counter-clockwise.
+     *
+     * @param x The x components of the points
+     * @param y The y components of the points
+     * @param count The number of points
+     * @param pose The pose of the robot
+     * @param out The array the angles are written to, in the range [-pi, pi]
+     */
+    public static void bearingsFrom(double[] x, double[] y, int count, Pose2d pose, double[] out) {
+        checkCount(x, y, count);
+        checkCount(out, count);
+        double ox = pose.getX();
+        double oy = pose.getY();
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        for (int i = 0; i < count; i++) {
+            double px = x[i] - ox;
+            double py = y[i] - oy;
+            // Rotate into the robot frame so the result is already wrapped
+            out[i] = Math.atan2(-px * sin + py * cos, px * cos + py * sin);
+        }
+    }
+
+    private static void checkCount(double[] x, double[] y, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        if (count > x.length || count > y.length) {
+            throw new IllegalArgumentException(
+                    "count " + count + " exceeds arrays of length " + x.length + "/" + y.length);
+        }
+    }
+
+    private static void checkCount(double[] out, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        if (count > out.length) {
+            throw new IllegalArgumentException(
+                    "count " + count + " exceeds output array of length " + out.length);
+        }
+    }
+}
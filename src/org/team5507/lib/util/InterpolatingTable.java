@@ -0,0 +1,155 @@
+package org.team5507.lib.util;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A 1D lookup table that linearly interpolates between sorted breakpoints, e.g. shooter RPM
+ * against distance. Lookups use a binary search over primitive arrays, or a direct index when the
+ * breakpoints are evenly spaced, and never box.
+ *
+ * <p>Outside the breakpoints the table holds the end values unless {@link #extrapolate(boolean)}
+ * is enabled, in which case the end segments are extended.
+ */
+public class InterpolatingTable {
+    private final double[] xs;
+    private final double[] ys;
+    private final boolean uniform;
+    private final double invStep;
+    private boolean extrapolate = false;
+
+    /**
+     * Creates a table. The arrays are copied.
+     *
+     * @param xs The breakpoints, strictly increasing
+     * @param ys The value at each breakpoint
+     */
+    public InterpolatingTable(double[] xs, double[] ys) {
+        if (xs.length != ys.length || xs.length == 0) {
+            throw new IllegalArgumentException(
+                    "Breakpoints and values must be non-empty and of equal length");
+        }
+        for (int i = 1; i < xs.length; i++) {
+            if (!(xs[i] > xs[i - 1])) {
+                throw new IllegalArgumentException("Breakpoints must be strictly increasing");
+            }
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+
+        boolean even = xs.length > 1;
+        double step = xs.length > 1 ? (xs[xs.length - 1] - xs[0]) / (xs.length - 1) : 1;
+        for (int i = 1; i < xs.length && even; i++) {
+            even = Math.abs(xs[i] - xs[0] - i * step) <= 1e-9 * Math.max(1, Math.abs(step * i));
+        }
+        this.uniform = even;
+        this.invStep = 1 / step;
+    }
+
+    /**
+     * Creates a table with evenly spaced breakpoints, which is always looked up in O(1).
+     *
+     * @param x0 The first breakpoint
+     * @param step The spacing between breakpoints
+     * @param ys The value at each breakpoint
+     * @return The table
+     */
+    public static InterpolatingTable uniform(double x0, double step, double[] ys) {
+        double[] xs = new double[ys.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = x0 + i * step;
+        }
+        return new InterpolatingTable(xs, ys);
+    }
+
+    /**
+     * Loads a table from a file in the deploy directory. Each line holds {@code x,y}; blank lines
+     * and lines starting with {@code #} are skipped.
+     *
+     * @param name The file name relative to the deploy directory
+     * @return The table
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static InterpolatingTable fromDeploy(String name) throws IOException {
+        List<String> lines =
+                Files.readAllLines(new File(Filesystem.getDeployDirectory(), name).toPath());
+        double[] xs = new double[lines.size()];
+        double[] ys = new double[lines.size()];
+        int n = 0;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                xs[n] = Double.parseDouble(fields[0].trim());
+                ys[n] = Double.parseDouble(fields[1].trim());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(name + ": cannot parse line \"" + line + "\"", e);
+            }
+            n++;
+        }
+        return new InterpolatingTable(Arrays.copyOf(xs, n), Arrays.copyOf(ys, n));
+    }
+
+    /**
+     * Sets whether lookups beyond the ends extend the end segments instead of holding the end
+     * values.
+     *
+     * @param extrapolate Whether to extrapolate
+     * @return This table, for chaining
+     */
+    public InterpolatingTable extrapolate(boolean extrapolate) {
+        this.extrapolate = extrapolate;
+        return this;
+    }
+
+    /**
+     * Looks up a value.
+     *
+     * @param x The input
+     * @return The interpolated value
+     */
+    public double get(double x) {
+        int last = xs.length - 1;
+        if (last == 0) {
+            return ys[0];
+        }
+        if (!extrapolate) {
+            if (x <= xs[0]) {
+                return ys[0];
+            }
+            if (x >= xs[last]) {
+                return ys[last];
+            }
+        }
+        int i = segment(x);
+        double t = (x - xs[i]) / (xs[i + 1] - xs[i]);
+        return ys[i] + (ys[i + 1] - ys[i]) * t;
+    }
+
+    /** Finds i such that xs[i] <= x < xs[i + 1], clamped to the first and last segments. */
+    int segment(double x) {
+        int last = xs.length - 1;
+        int i;
+        if (uniform) {
+            i = (int) Math.floor((x - xs[0]) * invStep);
+        } else {
+            i = MathUtil.floorIndex(xs, x);
+        }
+        return Math.max(0, Math.min(last - 1, i));
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    double[] breakpoints() {
+        return xs;
+    }
+}
@@ -0,0 +1,147 @@
+package org.team5507.lib.util;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A 2D lookup table that bilinearly interpolates over a grid of breakpoints, e.g. arm feedforward
+ * against angle and extension. Each axis is searched like an {@link InterpolatingTable}, so evenly
+ * spaced axes are indexed in O(1), and the values are stored in one flat primitive array.
+ */
+public class InterpolatingTable2d {
+    // Each axis is a table mapping breakpoints onto themselves, used only for its segment search
+    private final InterpolatingTable xAxis;
+    private final InterpolatingTable yAxis;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] values;
+    private boolean extrapolate = false;
+
+    /**
+     * Creates a table. The arrays are copied.
+     *
+     * @param xs The breakpoints along x, strictly increasing
+     * @param ys The breakpoints along y, strictly increasing
+     * @param values The value at each breakpoint, indexed {@code values[xIndex][yIndex]}
+     */
+    public InterpolatingTable2d(double[] xs, double[] ys, double[][] values) {
+        if (values.length != xs.length) {
+            throw new IllegalArgumentException("Need one row of values per x breakpoint");
+        }
+        this.xAxis = new InterpolatingTable(xs, xs);
+        this.yAxis = new InterpolatingTable(ys, ys);
+        this.xs = xAxis.breakpoints();
+        this.ys = yAxis.breakpoints();
+        this.values = new double[xs.length * ys.length];
+        for (int i = 0; i < xs.length; i++) {
+            if (values[i].length != ys.length) {
+                throw new IllegalArgumentException("Need one value per y breakpoint in each row");
+            }
+            System.arraycopy(values[i], 0, this.values, i * ys.length, ys.length);
+        }
+    }
+
+    /**
+     * Loads a table from a file in the deploy directory. The first line lists the y breakpoints
+     * after an empty first field ({@code ,y0,y1,...}); every following line holds an x
+     * breakpoint and its row of values ({@code x,v0,v1,...}). Blank lines and lines starting with
+     * {@code #} are skipped.
+     *
+     * @param name The file name relative to the deploy directory
+     * @return The table
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static InterpolatingTable2d fromDeploy(String name) throws IOException {
+        List<String> lines =
+                Files.readAllLines(new File(Filesystem.getDeployDirectory(), name).toPath());
+        double[] ys = null;
+        List<Double> xs = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                double[] parsed = new double[fields.length - 1];
+                for (int i = 1; i < fields.length; i++) {
+                    parsed[i - 1] = Double.parseDouble(fields[i].trim());
+                }
+                if (ys == null) {
+                    ys = parsed;
+                } else {
+                    xs.add(Double.parseDouble(fields[0].trim()));
+                    rows.add(parsed);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(name + ": cannot parse line \"" + line + "\"", e);
+            }
+        }
+        if (ys == null) {
+            throw new IOException(name + " is empty");
+        }
+        double[] xArray = new double[xs.size()];
+        for (int i = 0; i < xArray.length; i++) {
+            xArray[i] = xs.get(i);
+        }
+        try {
+            return new InterpolatingTable2d(xArray, ys, rows.toArray(new double[0][]));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sets whether lookups beyond the edges extend the edge cells instead of clamping.
+     *
+     * @param extrapolate Whether to extrapolate
+     * @return This table, for chaining
+     */
+    public InterpolatingTable2d extrapolate(boolean extrapolate) {
+        this.extrapolate = extrapolate;
+        return this;
+    }
+
+    /**
+     * Looks up a value.
+     *
+     * @param x The input along x
+     * @param y The input along y
+     * @return The interpolated value
+     */
+    public double get(double x, double y) {
+        if (!extrapolate) {
+            x = MathUtil.constrain(x, xs[0], xs[xs.length - 1]);
+            y = MathUtil.constrain(y, ys[0], ys[ys.length - 1]);
+        }
+        int stride = ys.length;
+        if (xs.length == 1 || ys.length == 1) {
+            // Degenerate grid; interpolate along whichever axis has more than one breakpoint
+            if (xs.length == 1 && ys.length == 1) {
+                return values[0];
+            }
+            boolean alongX = ys.length == 1;
+            double[] axis = alongX ? xs : ys;
+            int i = alongX ? xAxis.segment(x) : yAxis.segment(y);
+            double t = ((alongX ? x : y) - axis[i]) / (axis[i + 1] - axis[i]);
+            return values[i] + (values[i + 1] - values[i]) * t;
+        }
+        int i = xAxis.segment(x);
+        int j = yAxis.segment(y);
+        double tx = (x - xs[i]) / (xs[i + 1] - xs[i]);
+        double ty = (y - ys[j]) / (ys[j + 1] - ys[j]);
+        int base = i * stride + j;
+        double v00 = values[base];
+        double v01 = values[base + 1];
+        double v10 = values[base + stride];
+        double v11 = values[base + stride + 1];
+        double low = v00 + (v01 - v00) * ty;
+        double high = v10 + (v11 - v10) * ty;
+        return low + (high - low) * tx;
+    }
+}
@@ -1,17 +1,58 @@
 package org.team5507.lib.util;
 
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Writes text logs to a file per match. The file is split into segments once it reaches a size
+ * or an age, and closed segments are compressed and the oldest compressed segments in the
+ * directory deleted to stay within a budget, all on a low priority background thread. Segments
+ * are numbered past those already in the directory, so starting again under the same match, e.g.
+ * at practice or after a reboot, never overwrites an earlier segment. Segments left uncompressed
+ * because the robot lost power before {@link #stop()} are compressed by the next {@link #start()}.
+ * If a segment cannot be opened, e.g. on a full disk, messages are printed instead and opening is
+ * retried every second.
+ *
  * @author Finn Frankis
  * @version Nov 18, 2018
  */
 public class Logger {
     private static String defaultLoc = "/home/lvuser/logs/";
+    private static final String EXTENSION = ".txt";
+    private static final String COMPRESSED_EXTENSION = ".txt.gz";
+    private static final long RETRY_MICROS = 1_000_000;
+    private static ExecutorService compressor;
+    // Segments being written by any logger, which the leftover scan must not compress
+    private static final Set<File> openSegments = Collections.synchronizedSet(new HashSet<>());
+
     private String fileLoc;
     private PrintWriter logger;
+    private String baseName;
+    private File file;
+    private int segment = 0;
+    private boolean reopen = false;
+    private long segmentBytes = 0;
+    private long segmentStartMicros = 0;
+
+    private long maxSegmentBytes = 4 * 1024 * 1024;
+    private long maxSegmentMicros = 0;
+    private long budgetBytes = 64 * 1024 * 1024;
 
     public Logger() {
         this.fileLoc = defaultLoc;
@@ -21,21 +62,66 @@ public class Logger {
         this.fileLoc = fileLoc;
     }
 
+    /**
+     * Sets the size at which a new segment is started. Defaults to 4 MB.
+     *
+     * @param bytes The segment size, counted in characters written
+     * @return This logger, for chaining
+     */
+    public Logger rotateAt(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("bytes must be positive");
+        }
+        this.maxSegmentBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Sets the age at which a new segment is started. Disabled by default.
+     *
+     * @param seconds The segment age, or 0 to rotate on size only
+     * @return This logger, for chaining
+     */
+    public Logger rotateEvery(double seconds) {
+        this.maxSegmentMicros = (long) (seconds * 1e6);
+        return this;
+    }
+
+    /**
+     * Sets how much space compressed segments may take up in the log directory, including those
+     * of earlier matches. The oldest are deleted first. Defaults to 64 MB.
+     *
+     * @param bytes The budget
+     * @return This logger, for chaining
+     */
+    public Logger budget(long bytes) {
+        this.budgetBytes = bytes;
+        return this;
+    }
+
+    /** Starts a new file for the current match, closing the current one if there is one. */
     public void start() {
-        String fileName =
+        if (logger != null) {
+            closeSegment();
+        }
+        baseName =
                 DriverStation.getEventName()
                         + DriverStation.getMatchType()
                         + "-"
                         + DriverStation.getAlliance()
                         + DriverStation.getLocation()
                         + "-"
-                        + DriverStation.getMatchNumber()
-                        + ".txt";
-        try {
-            logger = new PrintWriter(fileLoc + fileName);
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
+                        + DriverStation.getMatchNumber();
+        File directory = new File(fileLoc);
+        segment = lastSegment(directory, baseName);
+        long budget = budgetBytes;
+        compressor()
+                .execute(
+                        () -> {
+                            compressLeftovers(directory);
+                            enforceBudget(directory, budget);
+                        });
+        openSegment();
     }
 
     public void log(String val) {
@@ -44,10 +130,169 @@ public class Logger {
                         + DriverStation.getMatchTime()
                         + " "
                         + val;
+        if (logger != null
+                && (segmentBytes >= maxSegmentBytes
+                        || (maxSegmentMicros > 0
+                                && RobotController.getFPGATime() - segmentStartMicros
+                                        >= maxSegmentMicros))) {
+            closeSegment();
+            openSegment();
+        } else if (reopen && RobotController.getFPGATime() - segmentStartMicros >= RETRY_MICROS) {
+            openSegment();
+        }
         if (logger != null) {
             logger.println(message);
+            segmentBytes += message.length() + 1;
         } else {
             System.out.println(message);
         }
     }
+
+    /** Writes buffered messages to the file, e.g. from a slow {@code TaskScheduler} task. */
+    public void flush() {
+        if (logger != null) {
+            logger.flush();
+        }
+    }
+
+    /** Closes and compresses the current segment. Messages logged after this are printed. */
+    public void stop() {
+        reopen = false;
+        if (logger != null) {
+            closeSegment();
+        }
+    }
+
+    private void openSegment() {
+        segment++;
+        file = new File(fileLoc, baseName + "-" + segment + EXTENSION);
+        try {
+            logger = new PrintWriter(file);
+            openSegments.add(file.getAbsoluteFile());
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+            logger = null;
+        }
+        // Until the next segment opens, log() retries once the retry interval has passed
+        reopen = logger == null;
+        segmentBytes = 0;
+        segmentStartMicros = RobotController.getFPGATime();
+    }
+
+    /** Hands the segment to the background thread, which also does the final flush. */
+    private void closeSegment() {
+        PrintWriter closed = logger;
+        File closedFile = file;
+        logger = null;
+        long budget = budgetBytes;
+        compressor()
+                .execute(
+                        () -> {
+                            closed.close();
+                            try {
+                                compress(closedFile);
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                            openSegments.remove(closedFile.getAbsoluteFile());
+                            enforceBudget(closedFile.getParentFile(), budget);
+                        });
+    }
+
+    private static synchronized ExecutorService compressor() {
+        if (compressor == null) {
+            compressor =
+                    Executors.newSingleThreadExecutor(
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "Logger compressor");
+                                thread.setDaemon(true);
+                                thread.setPriority(Thread.MIN_PRIORITY);
+                                return thread;
+                            });
+        }
+        return compressor;
+    }
+
+    private static void compress(File file) throws IOException {
+        String name = file.getName();
+        File compressed =
+                new File(
+                        file.getParentFile(),
+                        name.substring(0, name.length() - EXTENSION.length())
+                                + COMPRESSED_EXTENSION);
+        try (InputStream in = new FileInputStream(file);
+                OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        if (!file.delete()) {
+            LoggingManager.logMessage("Logger: could not delete " + file);
+        }
+    }
+
+    /** Compresses segments that were never closed, e.g. because the robot lost power. */
+    private static void compressLeftovers(File directory) {
+        File[] leftovers =
+                directory.listFiles(file -> file.isFile() && file.getName().endsWith(EXTENSION));
+        if (leftovers == null) {
+            return;
+        }
+        for (File leftover : leftovers) {
+            if (openSegments.contains(leftover.getAbsoluteFile())) {
+                continue;
+            }
+            try {
+                compress(leftover);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** @return The highest segment number of a base name in the directory, 0 if there is none */
+    private static int lastSegment(File directory, String baseName) {
+        String prefix = baseName + "-";
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix));
+        int last = 0;
+        if (files == null) {
+            return last;
+        }
+        for (File file : files) {
+            String number = file.getName().substring(prefix.length());
+            if (number.endsWith(COMPRESSED_EXTENSION)) {
+                number = number.substring(0, number.length() - COMPRESSED_EXTENSION.length());
+            } else if (number.endsWith(EXTENSION)) {
+                number = number.substring(0, number.length() - EXTENSION.length());
+            } else {
+                continue;
+            }
+            try {
+                last = Math.max(last, Integer.parseInt(number));
+            } catch (NumberFormatException e) {
+                // Another match whose name starts with this one's
+            }
+        }
+        return last;
+    }
+
+    private static void enforceBudget(File directory, long budget) {
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(COMPRESSED_EXTENSION));
+        if (segments == null) {
+            return;
+        }
+        long total = 0;
+        for (File segment : segments) {
+            total += segment.length();
+        }
+        Arrays.sort(segments, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < segments.length && total > budget; i++) {
+            long length = segments[i].length();
+            if (segments[i].delete()) {
+                total -= length;
+            }
+        }
+    }
 }
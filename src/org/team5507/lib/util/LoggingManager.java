@@ -1,8 +1,10 @@
 package org.team5507.lib.util;
 
 import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import java.util.Optional;
 
 public class LoggingManager {
@@ -26,4 +28,176 @@ public class LoggingManager {
     public static void logMessage(String message) {
         DataLogManager.log(message);
     }
+
+    /**
+     * Creates a signal that is only logged when it moves more than epsilon away from the last
+     * logged value, for slow signals like temperatures and limit switches.
+     *
+     * @param name The name of the entry
+     * @param epsilon The smallest change that is logged; 0 logs every change
+     * @return The signal
+     */
+    public static Signal onChange(String name, double epsilon) {
+        return new Signal(name, Signal.ON_CHANGE, epsilon);
+    }
+
+    /**
+     * Creates a signal that is logged at most at a fixed rate, however often it is updated.
+     *
+     * @param name The name of the entry
+     * @param rate The highest logging rate in Hz
+     * @return The signal
+     */
+    public static Signal decimated(String name, double rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        return new Signal(name, Signal.DECIMATED, 1e6 / rate);
+    }
+
+    /**
+     * Creates a signal that is logged as its minimum, maximum and mean over each window, to the
+     * entries name + "/min", "/max" and "/mean", for fast signals like currents.
+     *
+     * @param name The name of the entries
+     * @param seconds The length of a window
+     * @return The signal
+     */
+    public static Signal summarized(String name, double seconds) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("seconds must be positive");
+        }
+        return new Signal(name, Signal.SUMMARIZED, seconds * 1e6);
+    }
+
+    /**
+     * A value logged under a policy that decides which updates reach the log. Create signals
+     * once, e.g. in subsystem constructors, and update them every cycle; updates do not allocate.
+     * Without a log, e.g. in simulation, updates do nothing. Not thread safe.
+     */
+    public static class Signal {
+        private static final int ON_CHANGE = 0;
+        private static final int DECIMATED = 1;
+        private static final int SUMMARIZED = 2;
+
+        private final int policy;
+        private final double parameter;
+        private final DoubleLogEntry entry;
+        private final DoubleLogEntry minEntry;
+        private final DoubleLogEntry maxEntry;
+
+        private boolean started = false;
+        private double last;
+        private long nextMicros;
+        private double min;
+        private double max;
+        private double sum;
+        private int count;
+
+        private Signal(String name, int policy, double parameter) {
+            this.policy = policy;
+            this.parameter = parameter;
+            DataLog dataLog = log.orElse(null);
+            if (dataLog == null) {
+                entry = minEntry = maxEntry = null;
+            } else if (policy == SUMMARIZED) {
+                entry = new DoubleLogEntry(dataLog, name + "/mean");
+                minEntry = new DoubleLogEntry(dataLog, name + "/min");
+                maxEntry = new DoubleLogEntry(dataLog, name + "/max");
+            } else {
+                entry = new DoubleLogEntry(dataLog, name);
+                minEntry = maxEntry = null;
+            }
+        }
+
+        /**
+         * Updates the signal, stamped with the FPGA time.
+         *
+         * @param value The current value
+         */
+        public void update(double value) {
+            if (entry != null) {
+                // The log stamps a 0 time with the current time, which saves reading the FPGA
+                // clock for unchanged values
+                update(value, policy == ON_CHANGE ? 0 : RobotController.getFPGATime());
+            }
+        }
+
+        public void update(boolean value) {
+            update(value ? 1 : 0);
+        }
+
+        /**
+         * Updates the signal.
+         *
+         * @param value The current value
+         * @param micros The time of the value in microseconds, which is what the log records; 0
+         *     for the current time when logging on change
+         */
+        public void update(double value, long micros) {
+            if (entry == null) {
+                return;
+            }
+            switch (policy) {
+                case ON_CHANGE:
+                    if (!started || !(Math.abs(value - last) <= parameter)) {
+                        entry.append(value, micros);
+                        last = value;
+                    }
+                    break;
+                case DECIMATED:
+                    if (!started || micros >= nextMicros) {
+                        entry.append(value, micros);
+                        advance(micros);
+                    }
+                    break;
+                default:
+                    if (!started) {
+                        advance(micros);
+                    } else if (micros >= nextMicros) {
+                        if (count > 0) {
+                            summarize(nextMicros);
+                        }
+                        advance(micros);
+                    }
+                    if (count == 0) {
+                        min = max = value;
+                    }
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    sum += value;
+                    count++;
+                    break;
+            }
+            started = true;
+        }
+
+        /** Moves to the next period, or restarts from now if updates stopped for longer. */
+        private void advance(long micros) {
+            nextMicros = (started ? nextMicros : micros) + (long) parameter;
+            if (nextMicros <= micros) {
+                nextMicros = micros + (long) parameter;
+            }
+        }
+
+        /**
+         * Logs the summary of the current window early, e.g. when disabling. The next update
+         * starts a new window.
+         */
+        public void flush() {
+            if (policy == SUMMARIZED && count > 0 && entry != null) {
+                summarize(RobotController.getFPGATime());
+                started = false;
+            }
+        }
+
+        /** Logs the summary of the current window, stamped with the time the window ended. */
+        private void summarize(long micros) {
+            minEntry.append(min, micros);
+            maxEntry.append(max, micros);
+            entry.append(sum / count, micros);
+            sum = 0;
+            count = 0;
+        }
+    }
 }
@@ -61,6 +61,50 @@ public final class MathUtil {
                 : map(inputValue, -1, -deadband, -1, 0);
     }
 
+    /**
+     * Finds the segment of a sorted array containing a value with a binary search.
+     *
+     * @param sorted the array to search, in increasing order.
+     * @param value the value to locate.
+     * @return the largest index i with sorted[i] {@literal <}= value, or -1 if value is below
+     *     every element.
+     */
+    public static int floorIndex(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Linearly interpolates a value from a table of sorted breakpoints, holding the end values
+     * outside the table. For repeated lookups into the same table, use {@link
+     * InterpolatingTable}.
+     *
+     * @param xs the breakpoints, in increasing order.
+     * @param ys the value at each breakpoint.
+     * @param x the input to look up.
+     * @return the interpolated value.
+     */
+    public static double interpolate(double[] xs, double[] ys, double x) {
+        int last = xs.length - 1;
+        if (x <= xs[0]) {
+            return ys[0];
+        }
+        if (x >= xs[last]) {
+            return ys[last];
+        }
+        int i = floorIndex(xs, x);
+        return map(x, xs[i], xs[i + 1], ys[i], ys[i + 1]);
+    }
+
     /**
      * Calculates setpoint of the robot's left and right side for turning in place based on the
      * desired angle and width of the robot.
@@ -68,9 +112,31 @@ public final class MathUtil {
      * @param angleDegrees desired angle in degrees to turn the robot
      * @param robotWidth width of the robot in feet
      * @return array of the left and right setpoint in feet
+     * @deprecated boxes its result; use {@link #turnInPlace(double, double, double[])}, which
+     *     returns the same setpoints. {@link
+     *     org.team5507.lib.kinematics.TankKinematics#turnInPlace(double, double[])} differs: it
+     *     takes radians, is counter-clockwise positive, and uses half its track width as the turn
+     *     radius where this uses the whole robot width. The same setpoints come from {@code new
+     *     TankKinematics(2 * robotWidth).turnInPlace(-Math.toRadians(angleDegrees), wheels)}.
      */
+    @Deprecated
     public List<Double> turnInPlace(double angleDegrees, double robotWidth) {
+        double[] setpoints = new double[2];
+        turnInPlace(angleDegrees, robotWidth, setpoints);
+        return Arrays.asList(new Double[] {setpoints[0], setpoints[1]});
+    }
+
+    /**
+     * Calculates setpoint of the robot's left and right side for turning in place based on the
+     * desired angle and width of the robot, without allocating.
+     *
+     * @param angleDegrees desired angle in degrees to turn the robot, clockwise positive
+     * @param robotWidth width of the robot in feet
+     * @param setpoints the {left, right} array the setpoints are written to, in feet
+     */
+    public static void turnInPlace(double angleDegrees, double robotWidth, double[] setpoints) {
         double angleRadians = angleDegrees * Math.PI / 180;
-        return Arrays.asList(new Double[] {angleRadians * robotWidth, -angleRadians * robotWidth});
+        setpoints[0] = angleRadians * robotWidth;
+        setpoints[1] = -angleRadians * robotWidth;
     }
 }
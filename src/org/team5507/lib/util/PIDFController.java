@@ -0,0 +1,195 @@
+package org.team5507.lib.util;
+
+/**
+ * A PIDF controller that runs on the roboRIO, for loops a motor controller cannot close on its
+ * own, such as on a remote sensor or a fused estimate. It is configured from the same {@link
+ * Gains} used with {@link
+ * org.team5507.lib.wrappers.MotorController5507#configClosedLoopConstants}, and each {@link
+ * #calculate(double)} is one primitive in, one primitive out, with no allocation.
+ *
+ * <p>The math works in seconds: the integral accumulates {@code error * period} and the
+ * derivative is {@code delta error / period}, so gains tuned for a controller's onboard loop are a
+ * starting point, not a drop-in. kF multiplies the setpoint, as it does on CTRE controllers. An
+ * iZone of zero disables the zone; otherwise the accumulator is cleared whenever the error leaves
+ * it.
+ */
+public class PIDFController {
+    private final double period;
+
+    private double kF;
+    private double kP;
+    private double kI;
+    private double kD;
+    private double iZone;
+
+    private double maxIntegralOutput = Double.POSITIVE_INFINITY;
+    private double minOutput = Double.NEGATIVE_INFINITY;
+    private double maxOutput = Double.POSITIVE_INFINITY;
+    private double derivativeAlpha = 1;
+    private boolean continuous = false;
+    private double minInput;
+    private double maxInput;
+    private double tolerance = 0;
+
+    private double setpoint = 0;
+    private double error = 0;
+    private double integral = 0;
+    private double derivative = 0;
+    private boolean first = true;
+
+    /**
+     * Creates a controller called every 20 ms.
+     *
+     * @param gains The gains to use
+     */
+    public PIDFController(Gains gains) {
+        this(gains, 0.02);
+    }
+
+    /**
+     * Creates a controller.
+     *
+     * @param gains The gains to use
+     * @param period The time between calls to calculate, in seconds
+     */
+    public PIDFController(Gains gains, double period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive, got " + period);
+        }
+        this.period = period;
+        setGains(gains);
+    }
+
+    /**
+     * Copies new gains into the controller, e.g. after tuning from the dashboard. The integral is
+     * kept.
+     *
+     * @param gains The gains to use
+     */
+    public void setGains(Gains gains) {
+        kF = gains.getkF();
+        kP = gains.getkP();
+        kI = gains.getkI();
+        kD = gains.getkD();
+        iZone = gains.getIZone();
+    }
+
+    /**
+     * Treats the input as wrapping around, e.g. an angle, so the controller always takes the
+     * short way to the setpoint.
+     *
+     * @param minInput The smallest input value
+     * @param maxInput The largest input value, equivalent to minInput
+     * @return This controller, for chaining
+     */
+    public PIDFController continuousInput(double minInput, double maxInput) {
+        this.continuous = true;
+        this.minInput = minInput;
+        this.maxInput = maxInput;
+        return this;
+    }
+
+    /**
+     * Limits the integral accumulator so that the integral term stays within the given
+     * contribution to the output, whatever kI is later set to.
+     *
+     * @param maxContribution The largest output the integral term may produce
+     * @return This controller, for chaining
+     */
+    public PIDFController integratorRange(double maxContribution) {
+        this.maxIntegralOutput = Math.abs(maxContribution);
+        return this;
+    }
+
+    public PIDFController outputRange(double minOutput, double maxOutput) {
+        this.minOutput = minOutput;
+        this.maxOutput = maxOutput;
+        return this;
+    }
+
+    /**
+     * Low-pass filters the derivative term with an exponential moving average.
+     *
+     * @param alpha The weight of each new derivative sample, between 0 and 1; 1 disables the
+     *     filter
+     * @return This controller, for chaining
+     */
+    public PIDFController derivativeFilter(double alpha) {
+        this.derivativeAlpha = alpha;
+        return this;
+    }
+
+    public PIDFController tolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public void setSetpoint(double setpoint) {
+        this.setpoint = setpoint;
+    }
+
+    public double getSetpoint() {
+        return setpoint;
+    }
+
+    /**
+     * Computes the output for a new measurement. Call exactly once per period.
+     *
+     * @param measurement The measured process value
+     * @return The controller output
+     */
+    public double calculate(double measurement) {
+        double newError = setpoint - measurement;
+        if (continuous) {
+            double range = maxInput - minInput;
+            newError = Math.IEEEremainder(newError, range);
+        }
+
+        if (iZone != 0 && Math.abs(newError) > iZone) {
+            integral = 0;
+        } else if (kI != 0) {
+            double limit = maxIntegralOutput / Math.abs(kI);
+            integral = MathUtil.constrain(integral + newError * period, -limit, limit);
+        }
+
+        if (first) {
+            derivative = 0;
+            first = false;
+        } else {
+            double raw = (newError - error) / period;
+            derivative += derivativeAlpha * (raw - derivative);
+        }
+        error = newError;
+
+        double output = kF * setpoint + kP * error + kI * integral + kD * derivative;
+        return MathUtil.constrain(output, minOutput, maxOutput);
+    }
+
+    /**
+     * Sets the setpoint and computes the output.
+     *
+     * @param measurement The measured process value
+     * @param setpoint The new setpoint
+     * @return The controller output
+     */
+    public double calculate(double measurement, double setpoint) {
+        this.setpoint = setpoint;
+        return calculate(measurement);
+    }
+
+    public double getError() {
+        return error;
+    }
+
+    public boolean atSetpoint() {
+        return !first && Math.abs(error) <= tolerance;
+    }
+
+    /** Clears the integral and derivative history, e.g. when the mechanism is re-enabled. */
+    public void reset() {
+        integral = 0;
+        derivative = 0;
+        error = 0;
+        first = true;
+    }
+}
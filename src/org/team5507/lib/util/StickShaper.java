@@ -0,0 +1,130 @@
+package org.team5507.lib.util;
+
+/**
+ * Shapes both axes of a stick together, which is what swerve translation wants: the deadband and
+ * expo curve act on the stick's distance from center rather than on each axis, so small diagonal
+ * inputs are not snapped to an axis and the direction of the stick is preserved.
+ *
+ * <p>Stages run in a fixed order: radial deadband, expo curve and scale on the magnitude, then a
+ * per-axis slew-rate limit. Results are read back with {@link #getX()} and {@link #getY()} so no
+ * pair object is allocated.
+ */
+public class StickShaper {
+    private double deadband = 0;
+    private double expo = 0;
+    private double scale = 1;
+    private double maxStep = Double.POSITIVE_INFINITY;
+    private double rateLimit = Double.POSITIVE_INFINITY;
+    private double period = 0.02;
+    private double x = 0;
+    private double y = 0;
+
+    /**
+     * Sets the radial deadband. Sticks closer to center than this read zero, and the remaining
+     * distance is rescaled so output magnitude starts at zero.
+     *
+     * @param deadband The deadband, between 0 and 1
+     * @return This shaper, for chaining
+     */
+    public StickShaper deadband(double deadband) {
+        this.deadband = deadband;
+        return this;
+    }
+
+    /**
+     * Sets the expo curve applied to the magnitude; see {@link AxisShaper#expo}.
+     *
+     * @param expo The amount of expo, between 0 and 1
+     * @return This shaper, for chaining
+     */
+    public StickShaper expo(double expo) {
+        this.expo = expo;
+        return this;
+    }
+
+    /**
+     * Uses a pure cubic curve on the magnitude, the same as {@code expo(1)}.
+     *
+     * @return This shaper, for chaining
+     */
+    public StickShaper cubic() {
+        return expo(1);
+    }
+
+    /**
+     * Sets the factor the shaped magnitude is multiplied by, e.g. for a slow mode. The direction
+     * of the stick is unchanged.
+     *
+     * @param scale The output scale
+     * @return This shaper, for chaining
+     */
+    public StickShaper scale(double scale) {
+        this.scale = scale;
+        return this;
+    }
+
+    /**
+     * Limits how fast each output axis may change.
+     *
+     * @param unitsPerSecond The largest change of either axis per second
+     * @return This shaper, for chaining
+     */
+    public StickShaper rateLimit(double unitsPerSecond) {
+        this.rateLimit = unitsPerSecond;
+        this.maxStep = unitsPerSecond * period;
+        return this;
+    }
+
+    /**
+     * Sets how often {@link #calculate} is called, which the rate limit is converted with.
+     * Defaults to the 20 ms main loop.
+     *
+     * @param seconds The time between calls in seconds
+     * @return This shaper, for chaining
+     */
+    public StickShaper period(double seconds) {
+        this.period = seconds;
+        this.maxStep = rateLimit * seconds;
+        return this;
+    }
+
+    /**
+     * Shapes one sample of the stick. Call exactly once per loop, then read the result with
+     * {@link #getX()} and {@link #getY()}.
+     *
+     * @param inputX The raw x axis value
+     * @param inputY The raw y axis value
+     */
+    public void calculate(double inputX, double inputY) {
+        double magnitude = Math.sqrt(inputX * inputX + inputY * inputY);
+        double outX = 0;
+        double outY = 0;
+        if (magnitude > deadband) {
+            double shaped = MathUtil.map(Math.min(magnitude, 1), deadband, 1, 0, 1);
+            double gain = scale * AxisShaper.curve(shaped, expo) / magnitude;
+            outX = inputX * gain;
+            outY = inputY * gain;
+        }
+        x = MathUtil.constrain(outX, x - maxStep, x + maxStep);
+        y = MathUtil.constrain(outY, y - maxStep, y + maxStep);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Resets the rate limiter so the next output may jump straight to the given values.
+     *
+     * @param x The value the x output is assumed to be at
+     * @param y The value the y output is assumed to be at
+     */
+    public void reset(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+}
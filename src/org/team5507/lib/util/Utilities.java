@@ -2,21 +2,19 @@ package org.team5507.lib.util;
 
 public class Utilities {
 
+    /**
+     * Same as {@link MathUtil#mapJoystickOutput}. For anything beyond a plain deadband, use an
+     * {@link AxisShaper}.
+     */
     public static double deadband(double value, double deadband) {
-        if (Math.abs(value) > deadband) {
-            if (value > 0.0) {
-                return (value - deadband) / (1.0 - deadband);
-            } else {
-                return (value + deadband) / (1.0 - deadband);
-            }
-        } else {
-            return 0.0;
-        }
+        return MathUtil.mapJoystickOutput(value, deadband);
     }
 
     public static double modifyAxis(double value) {
-        // Deadband
-        value = deadband(value, 0.2); // 0.05, 0.1 seems to work
-        return value;
+        return modifyAxis(value, 0.2); // 0.05, 0.1 seems to work
+    }
+
+    public static double modifyAxis(double value, double deadband) {
+        return deadband(value, deadband);
     }
 }
@@ -498,7 +498,8 @@ public interface MotorController5507 extends IMotorController {
     }
 
     /**
-     * Checks if the motor is stalling.
+     * Checks if the motor is stalling at this instant. Prefer a {@link StallDetector}, which
+     * ignores current spikes and reads the controller once per cycle.
      *
      * @param stallCurrent minimum current indicating stall
      * @param stallMinVelocity minimum velocity indicating stall
@@ -508,4 +509,17 @@ public interface MotorController5507 extends IMotorController {
         return (this.getStatorCurrent() > stallCurrent
                 && this.getSelectedSensorVelocity() < stallMinVelocity);
     }
+
+    /**
+     * Creates a {@link StallDetector} for this motor and registers it with {@link
+     * StallDetector#updateAll()}.
+     *
+     * @param stallCurrent minimum current indicating stall
+     * @param stallMinVelocity speed below which the motor counts as stopped
+     * @return the registered detector
+     */
+    public default StallDetector registerStallDetector(
+            double stallCurrent, double stallMinVelocity) {
+        return StallDetector.register(this, stallCurrent, stallMinVelocity);
+    }
 }
@@ -0,0 +1,222 @@
+package org.team5507.lib.wrappers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detects a stalled or jammed motor from its current and velocity over a window of samples,
+ * rather than from one instant like {@link MotorController5507#isStalling}. A sample counts as
+ * stalled when the stator current is above the stall current and the speed is below the stall
+ * velocity in either direction. The detector trips once enough of the window is stalled and only
+ * clears once few enough are, so a single current spike neither trips it nor makes it chatter.
+ *
+ * <p>Create one detector per controller with {@link #register}, then call {@link #updateAll()}
+ * once per loop. Each update reads current and velocity once. Transitions are reported through
+ * {@link #justStalled()} / {@link #justCleared()}, which are true for exactly one cycle, and
+ * through optional callbacks.
+ */
+public class StallDetector {
+    private static final List<StallDetector> detectors = new ArrayList<>();
+
+    private final MotorController5507 motor;
+    private final double stallCurrent;
+    private final double stallVelocity;
+    private final boolean[] window;
+    private final int tripCount;
+    private final int clearCount;
+    private int head = 0;
+    private int stalledSamples = 0;
+
+    private boolean stalled = false;
+    private boolean justStalled = false;
+    private boolean justCleared = false;
+    private int stalledCycles = 0;
+    private double lastCurrent = 0;
+    private double lastVelocity = 0;
+    private Runnable onStall;
+    private Runnable onClear;
+
+    /**
+     * Creates a detector that is updated manually.
+     *
+     * @param motor The controller to read, or null if values are always passed to {@link
+     *     #update(double, double)}
+     * @param stallCurrent The stator current above which the motor may be stalling, in amps
+     * @param stallVelocity The speed below which the motor may be stalling, in sensor units per
+     *     100 ms
+     * @param windowSize The number of samples considered
+     * @param tripCount How many samples in the window must be stalled to trip
+     * @param clearCount How many samples in the window may at most be stalled to clear; less
+     *     than tripCount
+     */
+    public StallDetector(
+            MotorController5507 motor,
+            double stallCurrent,
+            double stallVelocity,
+            int windowSize,
+            int tripCount,
+            int clearCount) {
+        if (tripCount > windowSize || clearCount >= tripCount || clearCount < 0) {
+            throw new IllegalArgumentException("Need 0 <= clearCount < tripCount <= windowSize");
+        }
+        this.motor = motor;
+        this.stallCurrent = stallCurrent;
+        this.stallVelocity = Math.abs(stallVelocity);
+        this.window = new boolean[windowSize];
+        this.tripCount = tripCount;
+        this.clearCount = clearCount;
+    }
+
+    /**
+     * Creates a detector for a controller and adds it to the detectors run by {@link
+     * #updateAll()}. The defaults trip when 8 of the last 10 cycles (200 ms) are stalled and
+     * clear when 2 or fewer are.
+     *
+     * @param motor The controller to watch
+     * @param stallCurrent The stator current above which the motor may be stalling, in amps
+     * @param stallVelocity The speed below which the motor may be stalling, in sensor units per
+     *     100 ms
+     * @return The registered detector
+     */
+    public static StallDetector register(
+            MotorController5507 motor, double stallCurrent, double stallVelocity) {
+        return register(new StallDetector(motor, stallCurrent, stallVelocity, 10, 8, 2));
+    }
+
+    /**
+     * Adds a detector to those run by {@link #updateAll()}.
+     *
+     * @param detector The detector to add
+     * @return The detector, for chaining
+     */
+    public static StallDetector register(StallDetector detector) {
+        if (detector.motor == null) {
+            throw new IllegalArgumentException("Only detectors with a motor can be registered");
+        }
+        detectors.add(detector);
+        return detector;
+    }
+
+    /** Updates every registered detector. Call once per loop, e.g. from robotPeriodic. */
+    public static void updateAll() {
+        for (int i = 0; i < detectors.size(); i++) {
+            detectors.get(i).update();
+        }
+    }
+
+    /** Reads the controller once and updates the detector. */
+    public void update() {
+        update(motor.getStatorCurrent(), motor.getSelectedSensorVelocity());
+    }
+
+    /**
+     * Updates the detector from values already read this cycle, e.g. by telemetry.
+     *
+     * @param current The stator current in amps
+     * @param velocity The velocity in sensor units per 100 ms
+     */
+    public void update(double current, double velocity) {
+        lastCurrent = current;
+        lastVelocity = velocity;
+        boolean sample = current > stallCurrent && Math.abs(velocity) < stallVelocity;
+
+        if (window[head]) {
+            stalledSamples--;
+        }
+        window[head] = sample;
+        if (sample) {
+            stalledSamples++;
+        }
+        head = head + 1 == window.length ? 0 : head + 1;
+
+        justStalled = false;
+        justCleared = false;
+        if (!stalled && stalledSamples >= tripCount) {
+            stalled = true;
+            justStalled = true;
+            stalledCycles = 0;
+            if (onStall != null) {
+                onStall.run();
+            }
+        } else if (stalled && stalledSamples <= clearCount) {
+            stalled = false;
+            justCleared = true;
+            if (onClear != null) {
+                onClear.run();
+            }
+        }
+        if (stalled) {
+            stalledCycles++;
+        }
+    }
+
+    /**
+     * Sets a callback run on the cycle the detector trips.
+     *
+     * @param action The callback
+     * @return This detector, for chaining
+     */
+    public StallDetector onStall(Runnable action) {
+        this.onStall = action;
+        return this;
+    }
+
+    /**
+     * Sets a callback run on the cycle the detector clears.
+     *
+     * @param action The callback
+     * @return This detector, for chaining
+     */
+    public StallDetector onClear(Runnable action) {
+        this.onClear = action;
+        return this;
+    }
+
+    public boolean isStalled() {
+        return stalled;
+    }
+
+    /** @return Whether the detector tripped on the latest update */
+    public boolean justStalled() {
+        return justStalled;
+    }
+
+    /** @return Whether the detector cleared on the latest update */
+    public boolean justCleared() {
+        return justCleared;
+    }
+
+    /**
+     * Whether the motor has been stalled for at least the given number of cycles, which tells a
+     * momentary stall (e.g. gripping a game piece) from a jam that needs to be backed out of.
+     *
+     * @param cycles The number of consecutive stalled updates
+     * @return Whether the motor is jammed
+     */
+    public boolean isJammed(int cycles) {
+        return stalled && stalledCycles >= cycles;
+    }
+
+    /** @return The current passed to the latest update, in amps */
+    public double getLastCurrent() {
+        return lastCurrent;
+    }
+
+    /** @return The velocity passed to the latest update, in sensor units per 100 ms */
+    public double getLastVelocity() {
+        return lastVelocity;
+    }
+
+    /** Clears the window and the stalled state without raising events. */
+    public void reset() {
+        for (int i = 0; i < window.length; i++) {
+            window[i] = false;
+        }
+        head = 0;
+        stalledSamples = 0;
+        stalled = false;
+        justStalled = false;
+        justCleared = false;
+        stalledCycles = 0;
+    }
+}